@@ -60,6 +60,9 @@ public class TCConfig {
     public static boolean setOwnerOnPlacement;
     public static boolean keepChunksLoadedOnlyWhenMoving;
     public static int maxKeepChunksLoadedRadius;
+    public static double keepChunksLoadedPreloadTime;
+    public static int keepChunksLoadedPreloadMaxPending;
+    public static boolean simulateUnloadedTrains;
     public static int maxDetectorLength;
     public static int maxMutexSize;
     public static boolean debugMutexGlow;
@@ -86,6 +89,7 @@ public class TCConfig {
     public static boolean allowNetherTeleport;
     public static int cacheVerificationTicks;
     public static int cacheExpireTicks;
+    public static int cacheMaxEntries;
     public static boolean enableCeilingBlockCollision = true; // whether to allow blocks above the minecart to collide
     public static int collisionReEnterDelay = 100; // Delay before letting mobs/player enter again
     public static boolean optimizeBlockActivation;
@@ -116,10 +120,13 @@ public class TCConfig {
     public static double unloadRunawayTrainDistance = 160.0;
     public static int autoSaveInterval = 30 * 20; // autosave every 30 seconds
     public static int attachmentTransformParallelism = -1;
+    public static boolean attachmentViewerCulling = false;
+    public static int dormantTrainTicks = 200;
     public static boolean allowExternalTicketImagePaths = false; // Whether images outside of the images subdirectory are allowed
     public static boolean allowSchematicAttachment = true;
     public static int maxCommandSelectorValues = 128;
     public static int maxConcurrentEffectLoops = 20;
+    public static int effectLoopThreads = 2;
     public static double spawnSignCooldown = -1.0;
     public static double itemPickupRadius = 2.0;
     public static int maxCartsPerWorld = -1;
@@ -272,6 +279,21 @@ public class TCConfig {
         config.addHeader("maxKeepChunksLoadedRadius", "The default is radius is 2, which loads a 5x5 chunk area. Avoid abuse, don't make it too big.");
         maxKeepChunksLoadedRadius = config.get("maxKeepChunksLoadedRadius", 7);
 
+        config.setHeader("keepChunksLoadedPreloadTime", "\nHow many seconds of travel ahead of a train that keeps chunks loaded, chunks are loaded asynchronously");
+        config.addHeader("keepChunksLoadedPreloadTime", "The chunks along the predicted route of the train are loaded before the train gets there,");
+        config.addHeader("keepChunksLoadedPreloadTime", "which avoids the server stalling while chunks are loaded synchronously. Set to 0 to disable.");
+        keepChunksLoadedPreloadTime = config.get("keepChunksLoadedPreloadTime", 3.0);
+
+        config.setHeader("keepChunksLoadedPreloadMaxPending", "\nMaximum number of chunks per world that can be loading at the same time because of preloading");
+        config.addHeader("keepChunksLoadedPreloadMaxPending", "Limits how much load fast trains put on the chunk loading system");
+        keepChunksLoadedPreloadMaxPending = config.get("keepChunksLoadedPreloadMaxPending", 16);
+
+        config.setHeader("simulateUnloadedTrains", "\nWhether trains that unload while on their way to a destination keep moving along their route");
+        config.addHeader("simulateUnloadedTrains", "The train is moved from path finding node to node at the speed it had, without loading chunks.");
+        config.addHeader("simulateUnloadedTrains", "When the chunk at the node it reached is loaded, the train is restored at that node.");
+        config.addHeader("simulateUnloadedTrains", "Station wait times and mutex zones are not simulated.");
+        simulateUnloadedTrains = config.get("simulateUnloadedTrains", false);
+
         config.setHeader("enableCeilingBlockCollision", "\nWhether to enable or cancel collisions with blocks above minecarts");
         config.addHeader("enableCeilingBlockCollision", "Some constructions depend on these block collisions to block minecarts");
         config.addHeader("enableCeilingBlockCollision", "If these collisions are unwanted, they can be turned off here");
@@ -413,6 +435,7 @@ public class TCConfig {
 
         config.setHeader("logSyncChunkLoads", "\nLogs when TrainCarts sync-loads another chunk while not expected to, like while handling a chunk load");
         config.addHeader("logSyncChunkLoads", "This is mostly for developers to diagnose performance issues. Sync chunk loads can, potentially, hurt server TPS");
+        config.addHeader("logSyncChunkLoads", "Also logs how many chunks trains had to load right away, and how many of those were avoided by preloading");
         logSyncChunkLoads = config.get("logSyncChunkLoads", false);
 
         // Cache settings
@@ -427,6 +450,10 @@ public class TCConfig {
             cacheConfig.setHeader("expireTicks", "After this number of ticks beyond the verification ticks the cached information is deleted");
             cacheConfig.addHeader("expireTicks", "Higher values can reduce lookups but this comes at the cost of higher memory consumption");
             cacheExpireTicks = cacheConfig.get("expireTicks", 20);
+            cacheConfig.setHeader("maxEntries", "Maximum number of rail block positions cached per world. When more are cached,");
+            cacheConfig.addHeader("maxEntries", "information not accessed this tick is deleted until the limit is reached, starting with rails without signs");
+            cacheConfig.addHeader("maxEntries", "Rails with minecarts on them are always kept. Set to 0 to disable this limit");
+            cacheMaxEntries = cacheConfig.get("maxEntries", 250000);
         }
 
         config.setHeader("allowedBlockBreakTypes", "\nThe block materials that can be broken using minecarts");
@@ -683,6 +710,16 @@ public class TCConfig {
             attachmentTransformParallelism = config.get("attachmentTransformParallelism", -1);
         }
 
+        config.setHeader("attachmentViewerCulling", "\nWhether to hide the attachments of carts from players that cannot see them");
+        config.addHeader("attachmentViewerCulling", "Carts with solid blocks in between the player and the cart are not spawned");
+        config.addHeader("attachmentViewerCulling", "or updated for that player until they come into view again");
+        attachmentViewerCulling = config.get("attachmentViewerCulling", false);
+
+        config.setHeader("dormantTrainTicks", "\nNumber of ticks a train must be parked before it becomes dormant. Dormant trains skip");
+        config.addHeader("dormantTrainTicks", "physics until they are moved, pushed, launched or their properties change. Trains with");
+        config.addHeader("dormantTrainTicks", "passengers, actions, active signs or on powered rails never become dormant. Set to 0 to disable.");
+        dormantTrainTicks = config.get("dormantTrainTicks", 200);
+
         config.setHeader("unloadRunawayTrainDistance", "\nWhen trains that keep chunks loaded around them derail, they can end up");
         config.addHeader("unloadRunawayTrainDistance", "flying off into nowhere. This results in thousands of chunks being generated,");
         config.addHeader("unloadRunawayTrainDistance", "with no clear indication other than server performance tanking. To combat this,");
@@ -711,6 +748,10 @@ public class TCConfig {
             maxConcurrentEffectLoops = max;
         }
 
+        config.setHeader("effectLoopThreads", "\nNumber of threads used to play asynchronous effect loops, such as MIDI sequences");
+        config.addHeader("effectLoopThreads", "Increase this if many effect loops play at the same time and notes start to drift");
+        effectLoopThreads = Math.max(1, config.get("effectLoopThreads", 2));
+
         config.setHeader("spawnSignCooldown", "\nCooldown in seconds between spawn sign spawns");
         config.addHeader("spawnSignCooldown", "Spawns are skipped/cancelled when spawning faster than this");
         config.addHeader("spawnSignCooldown", "A value of -1 disables this cooldown (default)");
@@ -14,10 +14,13 @@ import com.bergerkiller.bukkit.common.protocol.PacketType;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.HumanHand;
+import com.bergerkiller.bukkit.tc.attachments.VirtualEntityIndex;
 import com.bergerkiller.bukkit.tc.attachments.api.Attachment;
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentManager;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroupStore;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
+import com.bergerkiller.bukkit.tc.controller.components.AttachmentControllerMember;
 import com.bergerkiller.bukkit.tc.events.attachment.AttachmentInteractEvent;
 import com.bergerkiller.generated.net.minecraft.network.protocol.game.ServerboundAttackPacketHandle;
 import com.bergerkiller.generated.net.minecraft.network.protocol.game.ServerboundPlayerInputPacketHandle;
@@ -160,37 +163,20 @@ class TCPacketListener implements PacketListener {
                 return;
             }
 
-            // Find all Minecart entities that are nearby the player
-            Location eyeLoc = event.getPlayer().getEyeLocation();
-            try (ImplicitlySharedSet<MinecartGroup> groups = MinecartGroupStore.getGroups().clone()) {
-                for (MinecartGroup group : groups) {
-                    if (group.getWorld() != eyeLoc.getWorld()) {
-                        continue;
-                    }
-
-                    for (MinecartMember<?> member : group) {
-                        if (!member.getAttachments().isViewer(event.getPlayer())) {
-                            continue; // If not visible, don't loop through the model to check this
-                        }
-                        Attachment clickedAttachment = member.getAttachments().findAttachmentByEntityId(entityId);
-                        if (clickedAttachment == null) {
-                            continue; // Id is not used in the model
-                        }
-
-                        // Cancel the attack and handle this ourselves.
-                        handleInteractionWithAttachment(member, new AttachmentInteractEvent(
-                                event.getPlayer(),
-                                true,
-                                HumanHand.getMainHand(event.getPlayer()),
-                                null,
-                                entityId,
-                                clickedAttachment,
-                                null
-                        ));
-                        event.setCancelled(true);
-                        return;
-                    }
-                }
+            // Find the attachment of a cart the player can see that uses this entity id
+            ClickedAttachment clicked = findClickedAttachment(event.getPlayer(), entityId);
+            if (clicked != null) {
+                // Cancel the attack and handle this ourselves.
+                handleInteractionWithAttachment(clicked.member, new AttachmentInteractEvent(
+                        event.getPlayer(),
+                        true,
+                        HumanHand.getMainHand(event.getPlayer()),
+                        null,
+                        entityId,
+                        clicked.attachment,
+                        null
+                ));
+                event.setCancelled(true);
             }
         } else if (event.getType() == PacketType.IN_INTERACT) {
             ServerboundInteractPacketHandle packet_use = ServerboundInteractPacketHandle.createHandle(event.getPacket().getHandle());
@@ -222,48 +208,78 @@ class TCPacketListener implements PacketListener {
                 return;
             }
 
-            // Find all Minecart entities that are nearby the player
-            Location eyeLoc = event.getPlayer().getEyeLocation();
-            try (ImplicitlySharedSet<MinecartGroup> groups = MinecartGroupStore.getGroups().clone()) {
-                for (MinecartGroup group : groups) {
-                    if (group.getWorld() != eyeLoc.getWorld()) {
-                        continue;
-                    }
+            // Find the attachment of a cart the player can see that uses this entity id
+            ClickedAttachment clicked = findClickedAttachment(event.getPlayer(), entityId);
+            if (clicked != null) {
+                // Interaction with position fires for all entities including Armorstands
+                // Before 26.1, it only fires without position for interactable entities, like Minecarts
+                // Since it fires with position also for Minecarts, it is easier to ignore the one without
+                // and do all handling with the one that has position.
+                if (!packet_use.hasInteractAtPosition()) {
+                    event.setCancelled(true);
+                    return;
+                }
 
-                    for (MinecartMember<?> member : group) {
-                        if (!member.getAttachments().isViewer(event.getPlayer())) {
-                            continue; // If not visible, don't loop through the model to check this
-                        }
-                        Attachment clickedAttachment = member.getAttachments().findAttachmentByEntityId(entityId);
-                        if (clickedAttachment == null) {
-                            continue; // Id is not used in the model
-                        }
+                // Cancel the interaction and handle this ourselves.
+                handleInteractionWithAttachment(clicked.member, new AttachmentInteractEvent(
+                        event.getPlayer(),
+                        false,
+                        packet_use.getHand(event.getPlayer()),
+                        sneaking,
+                        entityId,
+                        clicked.attachment,
+                        packet_use.getInteractAtPosition()
+                ));
+                event.setCancelled(true);
+            }
+        }
+    }
 
-                        // Interaction with position fires for all entities including Armorstands
-                        // Before 26.1, it only fires without position for interactable entities, like Minecarts
-                        // Since it fires with position also for Minecarts, it is easier to ignore the one without
-                        // and do all handling with the one that has position.
-                        if (!packet_use.hasInteractAtPosition()) {
-                            event.setCancelled(true);
-                            return;
-                        }
+    /**
+     * Finds the attachment of a cart visible to a player that displays a particular entity id.
+     * The cart is looked up in the {@link VirtualEntityIndex}. Only if the entity id is not
+     * registered there are all the trains on the world of the player checked.
+     *
+     * @param player Player that clicked the entity
+     * @param entityId Entity ID that was clicked
+     * @return Clicked attachment, or <i>null</i> if not found
+     */
+    private static ClickedAttachment findClickedAttachment(Player player, int entityId) {
+        AttachmentManager manager = VirtualEntityIndex.findManager(entityId);
+        if (manager != null) {
+            if (!(manager instanceof AttachmentControllerMember)) {
+                return null; // Not part of a cart, such as an attachment editor preview
+            }
 
-                        // Cancel the interaction and handle this ourselves.
-                        handleInteractionWithAttachment(member, new AttachmentInteractEvent(
-                                event.getPlayer(),
-                                false,
-                                packet_use.getHand(event.getPlayer()),
-                                sneaking,
-                                entityId,
-                                clickedAttachment,
-                                packet_use.getInteractAtPosition()
-                        ));
-                        event.setCancelled(true);
-                        return;
+            AttachmentControllerMember controller = (AttachmentControllerMember) manager;
+            MinecartMember<?> member = controller.getMember();
+            if (member.isUnloaded() || member.getWorld() != player.getWorld() || !controller.isViewer(player)) {
+                return null;
+            }
+            Attachment clickedAttachment = controller.findAttachmentByEntityId(entityId);
+            return (clickedAttachment == null) ? null : new ClickedAttachment(member, clickedAttachment);
+        }
+
+        // Find all Minecart entities that are nearby the player
+        Location eyeLoc = player.getEyeLocation();
+        try (ImplicitlySharedSet<MinecartGroup> groups = MinecartGroupStore.getGroups().clone()) {
+            for (MinecartGroup group : groups) {
+                if (group.getWorld() != eyeLoc.getWorld()) {
+                    continue;
+                }
+
+                for (MinecartMember<?> member : group) {
+                    if (!member.getAttachments().isViewer(player)) {
+                        continue; // If not visible, don't loop through the model to check this
+                    }
+                    Attachment clickedAttachment = member.getAttachments().findAttachmentByEntityId(entityId);
+                    if (clickedAttachment != null) {
+                        return new ClickedAttachment(member, clickedAttachment);
                     }
                 }
             }
         }
+        return null;
     }
 
     private void applySneaking(final AttachmentInteractEvent event) {
@@ -452,4 +468,14 @@ class TCPacketListener implements PacketListener {
             }
         }
     }
+
+    private static final class ClickedAttachment {
+        public final MinecartMember<?> member;
+        public final Attachment attachment;
+
+        public ClickedAttachment(MinecartMember<?> member, Attachment attachment) {
+            this.member = member;
+            this.attachment = attachment;
+        }
+    }
 }
@@ -116,6 +116,7 @@ public class TrainCarts extends PluginBase {
     private final Task autosaveTask = new AutosaveTask(this);
     private Task cacheCleanupTask;
     private Task mutexZoneUpdateTask;
+    private Task offlineGroupSimulationTask;
     private final List<ChunkPreloadTask> chunkPreloadTasks = new ArrayList<>();
     private TCPropertyRegistry propertyRegistry;
     private TCListener listener;
@@ -970,6 +971,10 @@ public class TrainCarts extends PluginBase {
         // Refreshes mutex signs with trains on it to release state again
         mutexZoneUpdateTask = new MutexZoneUpdateTask(this).start(1, 1);
 
+        // Moves unloaded trains along their route, if enabled
+        offlineGroupSimulationTask = new OfflineGroupSimulationTask(this).start(
+                OfflineGroupSimulationTask.INTERVAL, OfflineGroupSimulationTask.INTERVAL);
+
         // Starts a task to track the auto-spawn timers
         this.spawnSignManager.enable();
 
@@ -1130,6 +1135,7 @@ public class TrainCarts extends PluginBase {
         Task.stop(autosaveTask);
         Task.stop(cacheCleanupTask);
         Task.stop(mutexZoneUpdateTask);
+        Task.stop(offlineGroupSimulationTask);
 
         //Stop preloading chunks (happens when quickly disabling after enabling)
         for (ChunkPreloadTask preloadTask : this.chunkPreloadTasks) {
@@ -1391,6 +1397,19 @@ public class TrainCarts extends PluginBase {
         }
     }
 
+    private static class OfflineGroupSimulationTask extends Task {
+        public static final int INTERVAL = 20;
+
+        public OfflineGroupSimulationTask(TrainCarts plugin) {
+            super(plugin);
+        }
+
+        @Override
+        public void run() {
+            ((TrainCarts) this.getPlugin()).getOfflineGroups().updateSimulations(INTERVAL);
+        }
+    }
+
     /**
      * Keeps chunks with trains in them loaded for a short time
      * to allow for the asynchronous entity loading to complete.
@@ -128,6 +128,11 @@ public abstract class VirtualDisplayEntity extends VirtualSpawnableObject
         return entityId == mountEntityId || entityId == displayEntityId;
     }
 
+    @Override
+    protected int[] getIndexedEntityIds() {
+        return new int[] { mountEntityId, displayEntityId };
+    }
+
     public Vector getScale() {
         return scale;
     }
@@ -130,6 +130,11 @@ public class VirtualEntity extends VirtualSpawnableObject {
         return entityId == this.entityId;
     }
 
+    @Override
+    protected int[] getIndexedEntityIds() {
+        return new int[] { this.entityId };
+    }
+
     public double getPosX() {
         return this.liveAbsPos.getX();
     }
@@ -0,0 +1,55 @@
+package com.bergerkiller.bukkit.tc.attachments;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentManager;
+
+/**
+ * Tracks what virtual spawnable object is displaying an entity id to players.
+ * Entity ids of an object are registered while the object has viewers, and
+ * are removed again once it is destroyed for all viewers.<br>
+ * <br>
+ * This is used when players click entities, to find the attachment manager (cart)
+ * that owns the clicked entity without looking through all trains. As lookups
+ * occur on the network thread, this index is safe to access from any thread.
+ */
+public final class VirtualEntityIndex {
+    private static final ConcurrentHashMap<Integer, VirtualSpawnableObject> objects = new ConcurrentHashMap<>();
+
+    private VirtualEntityIndex() {
+    }
+
+    /**
+     * Finds the attachment manager of the virtual spawnable object that is displaying
+     * an entity id to players.
+     *
+     * @param entityId Entity ID
+     * @return Attachment Manager of the object using this entity id, or <i>null</i>
+     *         if the entity id is not used by any spawned object
+     */
+    public static AttachmentManager findManager(int entityId) {
+        VirtualSpawnableObject object = objects.get(entityId);
+        return (object == null) ? null : object.manager;
+    }
+
+    /**
+     * Gets the number of entity ids currently registered
+     *
+     * @return registered entity id count
+     */
+    public static int size() {
+        return objects.size();
+    }
+
+    static void register(VirtualSpawnableObject object) {
+        for (int entityId : object.getIndexedEntityIds()) {
+            objects.put(entityId, object);
+        }
+    }
+
+    static void unregister(VirtualSpawnableObject object) {
+        for (int entityId : object.getIndexedEntityIds()) {
+            objects.remove(entityId, object);
+        }
+    }
+}
@@ -158,6 +158,11 @@ public class VirtualHitBoxEntity extends VirtualSpawnableObject {
         return false;
     }
 
+    @Override
+    protected int[] getIndexedEntityIds() {
+        return new int[] { hitboxEntityId };
+    }
+
     private void despawnHitBoxForViewer(AttachmentViewer viewer) {
         if (nearbyViewers.remove(viewer.getPlayer())) {
             viewer.send(ClientboundRemoveEntitiesPacketHandle.createNewSingle(this.hitboxEntityId));
@@ -23,6 +23,7 @@ import java.util.function.Consumer;
  * base functions for position synchronization.
  */
 public abstract class VirtualSpawnableObject {
+    protected static final int[] NO_ENTITY_IDS = new int[0];
     protected final AttachmentManager manager;
     private final ArrayList<AttachmentViewer> viewers = new ArrayList<AttachmentViewer>();
     private List<AttachmentViewer> viewersPendingGlowColorRemoval = Collections.emptyList();
@@ -107,6 +108,17 @@ public abstract class VirtualSpawnableObject {
      */
     public abstract boolean containsEntityId(int entityId);
 
+    /**
+     * Gets the entity ids this object displays to players itself, which are stored in the
+     * {@link VirtualEntityIndex} while this object has viewers. Entity ids of other
+     * spawnable objects used by this object are registered by those objects.
+     *
+     * @return Entity ids used by this object
+     */
+    protected int[] getIndexedEntityIds() {
+        return NO_ENTITY_IDS;
+    }
+
     /**
      * Sets whether this object is glowing - a way to show the selected attachment in the editor.
      * If a color is specified glowing is activated. If null is specified, it is disabled.
@@ -158,7 +170,7 @@ public abstract class VirtualSpawnableObject {
 
     public void addViewerWithoutSpawning(AttachmentViewer viewer) {
         if (!this.viewers.contains(viewer)) {
-            this.viewers.add(viewer);
+            addViewer(viewer);
         }
     }
 
@@ -193,7 +205,7 @@ public abstract class VirtualSpawnableObject {
         if (this.viewers.contains(viewer)) {
             this.destroy(viewer);
         }
-        this.viewers.add(viewer);
+        addViewer(viewer);
 
         this.sendSpawnPackets(viewer, motion);
 
@@ -209,7 +221,12 @@ public abstract class VirtualSpawnableObject {
                 this.applyGlowColorForViewer(viewer, null);
             }
         }
-        this.viewers.clear();
+        if (!this.viewers.isEmpty()) {
+            this.viewers.clear();
+            if (this.manager != null) {
+                VirtualEntityIndex.unregister(this);
+            }
+        }
         this.viewersPendingGlowColorRemoval = Collections.emptyList();
     }
 
@@ -219,7 +236,9 @@ public abstract class VirtualSpawnableObject {
     }
 
     public void destroy(AttachmentViewer viewer) {
-        this.viewers.remove(viewer);
+        if (this.viewers.remove(viewer) && this.viewers.isEmpty() && this.manager != null) {
+            VirtualEntityIndex.unregister(this);
+        }
         this.sendDestroyPackets(viewer);
         if (this.viewersPendingGlowColorRemoval.remove(viewer)) {
             this.applyGlowColorForViewer(viewer, null);
@@ -234,6 +253,13 @@ public abstract class VirtualSpawnableObject {
         viewers.forEach(v -> v.send(packet));
     }
 
+    private void addViewer(AttachmentViewer viewer) {
+        if (this.viewers.isEmpty() && this.manager != null) {
+            VirtualEntityIndex.register(this);
+        }
+        this.viewers.add(viewer);
+    }
+
     private AttachmentViewer asAttachmentViewer(Player player) {
         if (this.manager != null) {
             return this.manager.asAttachmentViewer(player);
@@ -367,13 +367,11 @@ public class Animation implements Cloneable {
             return new PlayPosition(elapsedTime, scene.nodeBeginIndex(), this._nodes[scene.nodeBeginIndex()]);
         }
 
-        // Interpolate to find the correct animation node
-        boolean playReversed = this._options.isReversed();
-        for (PlayPosition scenePosition : scene.iteratePlayPositions(this._nodes, this._options.isLooped())) {
-            PlayPosition result = scenePosition.findPosition(elapsedTime, playReversed);
-            if (result != null) {
-                return result;
-            }
+        // Binary search the compiled timeline of the scene to find the correct animation node
+        PlayPosition result = scene.findPosition(this._nodes, this._options.isLooped(),
+                elapsedTime, this._options.isReversed());
+        if (result != null) {
+            return result;
         }
 
         // Should never be reached
@@ -389,7 +387,7 @@ public class Animation implements Cloneable {
      */
     private double findTime(Scene scene, PlayPosition playPosition) {
         double time = 0.0;
-        for (PlayPosition scenePosition : scene.iteratePlayPositions(this._nodes, this._options.isLooped())) {
+        for (PlayPosition scenePosition : scene.compile(this._nodes, this._options.isLooped()).positions) {
             if (scenePosition.node0Index() == playPosition.node0Index()) {
                 return scenePosition.elapsedTime() + playPosition.deltaTime();
             } else {
@@ -508,6 +506,7 @@ public class Animation implements Cloneable {
         private final int _nodeBegin;
         private final int _nodeEnd;
         private final double _duration;
+        private CompiledScene _compiled, _compiledLooped;
 
         public Scene(int nodeBegin, int nodeEnd, double duration) {
             this._nodeBegin = nodeBegin;
@@ -584,12 +583,108 @@ public class Animation implements Cloneable {
             return PlayPosition.iterate(nodes, nodeBeginIndex(), nodeEndIndex(), looped);
         }
 
+        /**
+         * Finds the play position in this scene at the elapsed time specified. Produces the
+         * same result as iterating all {@link #iteratePlayPositions(AnimationNode[], boolean) play positions}
+         * and returning the first one whose {@link PlayPosition#findPosition(double, boolean) findPosition}
+         * succeeds, but uses a binary search.
+         *
+         * @param nodes All animation nodes of the Animation
+         * @param looped Whether to loop around as part of the scene
+         * @param elapsedTime Time since the beginning of the scene
+         * @param playReversed Whether playback is reversed
+         * @return Play Position, or <i>null</i> if not found
+         */
+        public PlayPosition findPosition(AnimationNode[] nodes, boolean looped, double elapsedTime, boolean playReversed) {
+            return compile(nodes, looped).findPosition(elapsedTime, playReversed);
+        }
+
+        /**
+         * Compiles all the play positions of this scene into a timeline that can be
+         * searched quickly. The result is cached, and shared by all clones of the
+         * Animation that play this scene.
+         *
+         * @param nodes All animation nodes of the Animation
+         * @param looped Whether to loop around as part of the scene
+         * @return compiled scene timeline
+         */
+        CompiledScene compile(AnimationNode[] nodes, boolean looped) {
+            CompiledScene compiled = looped ? this._compiledLooped : this._compiled;
+            if (compiled == null) {
+                compiled = new CompiledScene(iteratePlayPositions(nodes, looped));
+                if (looped) {
+                    this._compiledLooped = compiled;
+                } else {
+                    this._compiled = compiled;
+                }
+            }
+            return compiled;
+        }
+
         @Override
         public String toString() {
             return "Scene{duration=" + this._duration + ", start=" + this._nodeBegin + ", end=" + this._nodeEnd + "}";
         }
     }
 
+    /**
+     * All the play positions of a scene stored in an array, together with the time
+     * at which each play position ends. This allows finding the play position at a
+     * given time using a binary search, rather than iterating all nodes every tick.
+     */
+    static final class CompiledScene {
+        public final PlayPosition[] positions;
+        private final double[] endTimes;
+
+        public CompiledScene(Iterable<PlayPosition> positions) {
+            List<PlayPosition> list = new ArrayList<>();
+            positions.forEach(list::add);
+            this.positions = list.toArray(new PlayPosition[list.size()]);
+            this.endTimes = new double[this.positions.length];
+            for (int i = 0; i < this.positions.length; i++) {
+                PlayPosition position = this.positions[i];
+                this.endTimes[i] = (position instanceof PlayPositionBetween)
+                        ? (position.elapsedTime() + position.node0().getDuration()) : position.elapsedTime();
+            }
+        }
+
+        /**
+         * Finds the play position at the elapsed time specified. Produces the same
+         * result as iterating all play positions and returning the first one whose
+         * {@link PlayPosition#findPosition(double, boolean) findPosition} succeeds.
+         *
+         * @param elapsedTime Time since the beginning of the scene
+         * @param playReversed Whether playback is reversed
+         * @return Play Position, or <i>null</i> if not found
+         */
+        public PlayPosition findPosition(double elapsedTime, boolean playReversed) {
+            // Find the first play position that ends at or beyond the elapsed time
+            int low = 0, high = endTimes.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (endTimes[mid] < elapsedTime) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            // Rounding errors of the end times can cause it to be off by one
+            // Go back to the first play position that contains the time, then forwards
+            while (low > 0 && positions[low - 1].findPosition(elapsedTime, playReversed) != null) {
+                low--;
+            }
+            for (int i = low; i < positions.length; i++) {
+                PlayPosition result = positions[i].findPosition(elapsedTime, playReversed);
+                if (result != null) {
+                    return result;
+                }
+            }
+
+            return null;
+        }
+    }
+
     /**
      * The play position of an animation. Contains the time (since the start node of the scene),
      * and access the elapsed time and final (interpolated) node at this play position.
@@ -0,0 +1,115 @@
+package com.bergerkiller.bukkit.tc.attachments.api;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.bergerkiller.bukkit.common.config.ConfigurationNode;
+import com.bergerkiller.bukkit.common.config.yaml.YamlChangeListener;
+import com.bergerkiller.bukkit.common.config.yaml.YamlPath;
+import com.bergerkiller.bukkit.tc.attachments.animation.Animation;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Parsed animations of the 'animations' configuration of an attachment. All
+ * attachments that load the same configuration, such as the attachments of all
+ * carts using the same saved model, share the same template. Every attachment
+ * receives its own {@link Animation#clone() clone} of the animations, which
+ * shares the parsed animation nodes and scene timelines, but has its own play
+ * state.<br>
+ * <br>
+ * The template is discarded when the configuration changes, after which
+ * the next attachment that loads it parses it again.
+ */
+public final class AttachmentAnimationTemplate implements YamlChangeListener {
+    /** Weak keys are compared by identity, as equal configurations can be changed independently */
+    private static final Map<ConfigurationNode, AttachmentAnimationTemplate> templates = new MapMaker()
+            .weakKeys()
+            .makeMap();
+    private static long numParsedNodes = 0;
+    private static long numSharedNodes = 0;
+    private final WeakReference<ConfigurationNode> config;
+    private final List<Animation> animations;
+    private final int nodeCount;
+    private boolean valid;
+
+    private AttachmentAnimationTemplate(ConfigurationNode config) {
+        this.config = new WeakReference<>(config);
+        this.valid = true;
+
+        List<Animation> animations = new ArrayList<>();
+        int nodeCount = 0;
+        for (ConfigurationNode animationConfig : config.getNodes()) {
+            Animation anim = Animation.loadFromConfig(animationConfig);
+            if (anim != null) {
+                animations.add(anim);
+                nodeCount += anim.getNodeCount();
+            }
+        }
+        this.animations = Collections.unmodifiableList(animations);
+        this.nodeCount = nodeCount;
+        config.addChangeListener(this);
+    }
+
+    /**
+     * Creates new Animation instances for all the animations declared in an
+     * 'animations' configuration. Parsed animations are re-used when the same
+     * configuration was loaded before, and was not changed since.
+     *
+     * @param config Animations configuration
+     * @return List of new Animation instances, in the order they are declared
+     */
+    public static synchronized List<Animation> createAnimations(ConfigurationNode config) {
+        AttachmentAnimationTemplate template = templates.get(config);
+        if (template == null || !template.valid) {
+            template = new AttachmentAnimationTemplate(config);
+            templates.put(config, template);
+            numParsedNodes += template.nodeCount;
+        } else {
+            numSharedNodes += template.nodeCount;
+        }
+
+        List<Animation> result = new ArrayList<>(template.animations.size());
+        for (Animation animation : template.animations) {
+            result.add(animation.clone());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the total number of animation nodes that were parsed from configuration
+     *
+     * @return number of parsed animation nodes
+     */
+    public static synchronized long getParsedNodeCount() {
+        return numParsedNodes;
+    }
+
+    /**
+     * Gets the total number of animation nodes that were re-used from a template,
+     * rather than being parsed and stored again for an attachment.
+     *
+     * @return number of shared animation nodes
+     */
+    public static synchronized long getSharedNodeCount() {
+        return numSharedNodes;
+    }
+
+    @Override
+    public void onNodeChanged(YamlPath yamlPath) {
+        synchronized (AttachmentAnimationTemplate.class) {
+            if (valid) {
+                valid = false;
+                ConfigurationNode config = this.config.get();
+                if (config != null) {
+                    config.removeChangeListener(this);
+                    if (templates.get(config) == this) {
+                        templates.remove(config);
+                    }
+                }
+            }
+        }
+    }
+}
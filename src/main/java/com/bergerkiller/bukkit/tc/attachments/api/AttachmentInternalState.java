@@ -176,14 +176,12 @@ public class AttachmentInternalState {
 
         // Animation list
         if (config.isNode("animations")) {
+            // Parsed animations are shared by all attachments loading the same configuration
             ConfigurationNode animations = config.getNode("animations");
-            for (ConfigurationNode animationConfig : animations.getNodes()) {
-                Animation anim = Animation.loadFromConfig(animationConfig);
-                if (anim != null) {
-                    this.animations.put(anim.getOptions().getName(), anim);
-                    if (anim.getOptions().isAutoPlay()) {
-                        this.currentAnimation = anim;
-                    }
+            for (Animation anim : AttachmentAnimationTemplate.createAnimations(animations)) {
+                this.animations.put(anim.getOptions().getName(), anim);
+                if (anim.getOptions().isAutoPlay()) {
+                    this.currentAnimation = anim;
                 }
             }
         }
@@ -338,7 +336,12 @@ public class AttachmentInternalState {
      *                            The handler should sync the active
      *                            state change after all updates are
      *                            done.
+     * @deprecated Forks a task for every attachment, which is slow. TrainCarts
+     *             no longer uses this, use an
+     *             {@link com.bergerkiller.bukkit.tc.attachments.helper.AttachmentUpdateTransformHelper AttachmentUpdateTransformHelper}
+     *             instead.
      */
+    @Deprecated
     public ForkJoinTask<Void> updateTransformRecurseAsync(
             final Attachment attachment,
             final Matrix4x4 initialTransform,
@@ -180,18 +180,20 @@ public final class MidiChart implements Cloneable {
         List<MidiNote> notes = this.notes;
         int notesCount = notes.size();
 
-        // Reset search to beginning if we're skipping over stuff
-        if (currIndex >= notesCount || notes.get(currIndex).timeStepTimestampNanos > prevNanos) {
-            currIndex = 0;
+        // When playing sequentially, the index remembered from last time is that of the first
+        // note at or after prevNanos. If it isn't (seeking, looping, or the same chart is played
+        // by multiple effect loops) then binary search for it.
+        if (currIndex > notesCount
+                || (currIndex > 0 && notes.get(currIndex - 1).timeStepTimestampNanos >= prevNanos)
+                || (currIndex < notesCount && notes.get(currIndex).timeStepTimestampNanos < prevNanos)
+        ) {
+            currIndex = findFirstNoteIndex(notes, prevNanos);
         }
 
         // Advance currIndex until it is beyond currNanos
-        // Call callback if it is after or equal to prevNanos
         MidiNote n;
         while (currIndex < notesCount && (n = notes.get(currIndex)).timeStepTimestampNanos < currNanos) {
-            if (n.timeStepTimestampNanos >= prevNanos) {
-                action.accept(n);
-            }
+            action.accept(n);
             currIndex++;
         }
 
@@ -202,6 +204,28 @@ public final class MidiChart implements Cloneable {
         return currIndex < notesCount;
     }
 
+    /**
+     * Finds the index of the first note in a list of notes sorted by time, that
+     * is played at or after the timestamp specified.
+     *
+     * @param notes Sorted list of notes
+     * @param nanos Timestamp
+     * @return Index of the first note at or after the timestamp, or the list size if there is none
+     */
+    private static int findFirstNoteIndex(List<MidiNote> notes, long nanos) {
+        int low = 0;
+        int high = notes.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (notes.get(mid).timeStepTimestampNanos < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     /**
      * Gets the notes that are visible within a certain time step index range.
      *
@@ -16,6 +16,9 @@ public abstract class LightAPIController {
     private static final Map<World, LightAPIController> _blockLightControllers = new HashMap<>();
     private static final Map<World, LightAPIController> _skyLightControllers = new HashMap<>();
     private static SyncTask _task;
+    private static int _relightsThisTick = 0;
+    private static int _relightsLastTick = 0;
+    private static long _relightsTotal = 0;
     private boolean syncPending;
 
     protected LightAPIController() {
@@ -119,6 +122,36 @@ public abstract class LightAPIController {
         _task = null;
     }
 
+    /**
+     * Gets the number of blocks that had their light level changed during the
+     * previous tick, after combining the light changes of all light attachments.
+     *
+     * @return number of blocks relit the previous tick
+     */
+    public static int getRelightsLastTick() {
+        return _relightsLastTick;
+    }
+
+    /**
+     * Gets the total number of blocks that had their light level changed since
+     * the plugin enabled.
+     *
+     * @return total number of blocks relit
+     */
+    public static long getRelightsTotal() {
+        return _relightsTotal;
+    }
+
+    /**
+     * Tracks the number of blocks relit by a controller during the current tick
+     *
+     * @param count Number of blocks relit
+     */
+    protected static void trackRelights(int count) {
+        _relightsThisTick += count;
+        _relightsTotal += count;
+    }
+
     public abstract void add(IntVector3 position, int level);
 
     public abstract void remove(IntVector3 position, int level);
@@ -144,12 +177,14 @@ public abstract class LightAPIController {
         @Override
         public void run() {
             boolean busy = false;
+            _relightsThisTick = 0;
             for (LightAPIController controller : _blockLightControllers.values()) {
                 busy |= controller.sync();
             }
             for (LightAPIController controller : _skyLightControllers.values()) {
                 busy |= controller.sync();
             }
+            _relightsLastTick = _relightsThisTick;
             if (busy) {
                 ticksIdle = 0;
             } else if (++ticksIdle > 100) {
@@ -0,0 +1,296 @@
+package com.bergerkiller.bukkit.tc.attachments.control.light;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.bergerkiller.bukkit.common.bases.IntVector3;
+import com.bergerkiller.bukkit.common.collections.LongHashMap;
+import com.bergerkiller.bukkit.common.utils.MathUtil;
+
+/**
+ * Base implementation of a LightAPIController that collects all the light
+ * levels set by the light attachments, and only applies the changes once
+ * every tick. Per block the highest light level is tracked, and a change
+ * is only sent to the lighting engine when that level differs from what
+ * was applied the previous tick. Moving a light back and forth between
+ * two blocks within the same tick therefore does not cause any relighting.<br>
+ * <br>
+ * To avoid spikes, the number of blocks relit per chunk section every tick
+ * is limited. Remaining changes are applied the tick after.
+ */
+abstract class LightAPIControllerBatched extends LightAPIController {
+    /** Maximum number of blocks relit per 16x16x16 chunk section every tick */
+    private static final int MAX_SECTION_UPDATES_PER_TICK = 8;
+    private final Map<IntVector3, LevelList> levels;
+    private final Map<IntVector3, LevelList> dirty;
+    private final LongHashMap<int[]> sectionUpdates;
+    private final List<Map.Entry<IntVector3, LevelList>> pending;
+
+    protected LightAPIControllerBatched() {
+        this.levels = new HashMap<>();
+        this.dirty = new HashMap<>();
+        this.sectionUpdates = new LongHashMap<>();
+        this.pending = new ArrayList<>();
+    }
+
+    @Override
+    public void add(IntVector3 position, int level) {
+        if (level >= 1 && level <= 15) {
+            LevelList list = levels.computeIfAbsent(position, p -> new LevelList());
+            list.add(level);
+            markDirty(position, list);
+        }
+    }
+
+    @Override
+    public void remove(IntVector3 position, int level) {
+        LevelList list = levels.get(position);
+        if (list != null && list.remove(level)) {
+            markDirty(position, list);
+        }
+    }
+
+    @Override
+    public void move(IntVector3 old_position, IntVector3 new_position, int level) {
+        remove(old_position, level);
+        add(new_position, level);
+    }
+
+    @Override
+    public void update(IntVector3 position, int old_level, int new_level) {
+        LevelList list = levels.get(position);
+        if (list != null) {
+            list.remove(old_level);
+            if (new_level >= 1 && new_level <= 15) {
+                list.add(new_level);
+            }
+            markDirty(position, list);
+        }
+    }
+
+    private void markDirty(IntVector3 position, LevelList list) {
+        // Only schedule a sync when the resulting light level changes at all
+        if (list.isChanged()) {
+            dirty.put(position, list);
+            schedule();
+        } else if (dirty.remove(position) != null && list.isEmpty()) {
+            levels.remove(position);
+        }
+    }
+
+    @Override
+    protected final boolean onSync() {
+        if (dirty.isEmpty()) {
+            return false;
+        }
+
+        // Collect the changes to apply this tick, limited per chunk section
+        sectionUpdates.clear();
+        for (Iterator<Map.Entry<IntVector3, LevelList>> iter = dirty.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry<IntVector3, LevelList> dirty_entry = iter.next();
+            LevelList list = dirty_entry.getValue();
+            if (!list.isChanged()) {
+                // Changed back to what it was before in the same tick
+                iter.remove();
+                if (list.isEmpty()) {
+                    levels.remove(dirty_entry.getKey());
+                }
+                continue;
+            }
+
+            IntVector3 pos = dirty_entry.getKey();
+            long sectionKey = MathUtil.longHashToLong(MathUtil.toChunk(pos.x), MathUtil.toChunk(pos.z)) ^ ((long) MathUtil.toChunk(pos.y) << 48);
+            int[] count = sectionUpdates.get(sectionKey);
+            if (count == null) {
+                count = new int[1];
+                sectionUpdates.put(sectionKey, count);
+            }
+            if (count[0] < MAX_SECTION_UPDATES_PER_TICK) {
+                count[0]++;
+                pending.add(dirty_entry);
+            }
+        }
+
+        // First process all entries that need light removed
+        for (Map.Entry<IntVector3, LevelList> pending_entry : pending) {
+            if (pending_entry.getValue().needsRemoving()) {
+                removeLight(pending_entry.getKey());
+            }
+        }
+
+        // Then process the entries that create new light
+        for (Map.Entry<IntVector3, LevelList> pending_entry : pending) {
+            IntVector3 pos = pending_entry.getKey();
+            LevelList list = pending_entry.getValue();
+            if (list.isEmpty()) {
+                // Cleanup from states map
+                list.sync();
+                levels.remove(pos);
+            } else {
+                createLight(pos, list.sync());
+            }
+            dirty.remove(pos);
+        }
+
+        trackRelights(pending.size());
+        pending.clear();
+        sectionUpdates.clear();
+
+        flush();
+        return true;
+    }
+
+    /**
+     * Removes a previously created light source at a block
+     *
+     * @param position Block position
+     */
+    protected abstract void removeLight(IntVector3 position);
+
+    /**
+     * Creates a light source at a block, or changes the light level of
+     * one that already exists there.
+     *
+     * @param position Block position
+     * @param level Light level, 1 - 15
+     */
+    protected abstract void createLight(IntVector3 position, int level);
+
+    /**
+     * Called after all the light changes of a tick have been applied.
+     * Can be used to send the changed chunks to players.
+     */
+    protected abstract void flush();
+
+    /**
+     * List of light levels configured for a given block
+     */
+    private static final class LevelList {
+        private static final int[] NO_LEVELS = new int[0];
+        private static final int[][] SINGLE_LEVEL = new int[16][1];
+        static {
+            for (int level = 0; level <= 15; level++) {
+                SINGLE_LEVEL[level][0] = level;
+            }
+        }
+
+        // Light level that was last synchronized
+        private int sync = 0;
+        // Sorted list of light levels, highest value first
+        private int[] levels = NO_LEVELS;
+
+        /**
+         * Gets whether the original light source needs to be removed
+         * to properly update the light
+         *
+         * @return True if the previous light needs to be removed
+         */
+        public boolean needsRemoving() {
+            return (levels == NO_LEVELS) ? (sync > 0) : (sync > levels[0]);
+        }
+
+        /**
+         * Gets whether the maximum light level differs from the light
+         * level that was last synchronized
+         *
+         * @return True if changed
+         */
+        public boolean isChanged() {
+            return (levels == NO_LEVELS) ? (sync != 0) : (sync != levels[0]);
+        }
+
+        /**
+         * Gets whether the list of levels is empty.
+         * An empty list results in no light sources being created.
+         *
+         * @return True if empty
+         */
+        public boolean isEmpty() {
+            return levels == NO_LEVELS;
+        }
+
+        /**
+         * Synchronizes the light level, returning the new maximum light level
+         * applied. Returns 0 when empty.
+         *
+         * @return light level
+         */
+        public int sync() {
+            return sync = (levels == NO_LEVELS) ? 0 : levels[0];
+        }
+
+        /**
+         * Adds a new light level to this list. Returns true
+         * if the maximum light level stored has increased as a
+         * result.
+         *
+         * @param level Light level to add
+         * @return True if the maximum light level has increased as a result
+         */
+        public boolean add(int level) {
+            if (levels == NO_LEVELS) {
+                levels = SINGLE_LEVEL[level];
+                return true;
+            } else if (level > levels[0]) {
+                int[] new_levels = new int[levels.length + 1];
+                new_levels[0] = level;
+                System.arraycopy(levels, 0, new_levels, 1, levels.length);
+                levels = new_levels;
+                return true;
+            } else {
+                int[] new_levels = new int[levels.length + 1];
+                for (int i = 0; i < levels.length; i++) {
+                    int other_level = levels[i];
+                    if (level <= other_level) {
+                        new_levels[i] = other_level;
+                        continue;
+                    }
+
+                    // Level must be put here, in place of a previous level
+                    // Copy all remaining values after
+                    new_levels[i] = level;
+                    System.arraycopy(levels, i, new_levels, i+1, levels.length - i);
+                    levels = new_levels;
+                    return false;
+                }
+
+                // Add level at the end of the list
+                new_levels[levels.length] = level;
+                levels = new_levels;
+                return false;
+            }
+        }
+
+        /**
+         * Removes a single light level from this list. Returns true if the
+         * level was found and removed.
+         *
+         * @param level Light level to remove
+         * @return True if the level was removed
+         */
+        public boolean remove(int level) {
+            int len = levels.length;
+            for (int i = 0; i < len; i++) {
+                if (levels[i] == level) {
+                    if (len == 1) {
+                        levels = NO_LEVELS;
+                    } else if (len == 2) {
+                        levels = SINGLE_LEVEL[levels[1 - i]];
+                    } else {
+                        int[] new_levels = new int[len - 1];
+                        System.arraycopy(levels, 0, new_levels, 0, i);
+                        System.arraycopy(levels, i+1, new_levels, i, len - i - 1);
+                        levels = new_levels;
+                    }
+                    return true;
+                }
+            }
+
+            // Not found
+            return false;
+        }
+    }
+}
@@ -14,7 +14,7 @@ import ru.beykerykt.minecraft.lightapi.common.api.engine.sched.ICallback;
  * Implementation of the LightAPIController. Requires LightAPI version 5
  * or newer to be installed.
  */
-class LightAPIControllerV5Impl extends LightAPIController {
+class LightAPIControllerV5Impl extends LightAPIControllerBatched {
     private final LightAPI api;
     private final ICallback callback;
     private final String worldName;
@@ -35,36 +35,23 @@ class LightAPIControllerV5Impl extends LightAPIController {
         return new LightAPIControllerV5Impl(world.getName(), LightFlag.SKY_LIGHTING);
     }
 
-    private void set(IntVector3 position, int level, EditPolicy editPolicy) {
-        SendPolicy sendPolicy = SendPolicy.DEFERRED;
+    private void set(IntVector3 position, int level) {
         api.setLightLevel(worldName, position.x, position.y, position.z, level,
-                lightFlag, editPolicy, sendPolicy, callback);
+                lightFlag, EditPolicy.DEFERRED, SendPolicy.DEFERRED, callback);
     }
 
     @Override
-    public void add(IntVector3 position, int level) {
-        set(position, level, EditPolicy.DEFERRED);
+    protected void removeLight(IntVector3 position) {
+        set(position, 0);
     }
 
     @Override
-    public void remove(IntVector3 position, int level) {
-        // Must be immediate, otherwise sync operations fail (bug)
-        set(position, 0, EditPolicy.DEFERRED);
+    protected void createLight(IntVector3 position, int level) {
+        set(position, level);
     }
 
     @Override
-    public void move(IntVector3 old_position, IntVector3 new_position, int level) {
-        set(new_position, level, EditPolicy.DEFERRED);
-        set(old_position, 0, EditPolicy.DEFERRED);
-    }
-
-    @Override
-    public void update(IntVector3 position, int old_level, int new_level) {
-        set(position, new_level, EditPolicy.DEFERRED);
-    }
-
-    @Override
-    protected boolean onSync() {
-        return false;
+    protected void flush() {
+        // Chunks are sent by LightAPI itself (deferred)
     }
 }
@@ -146,6 +146,11 @@ public class MovingSchematic extends VirtualSpawnableObject {
         return entityId == mountEntityId; // Others can't be interacted with, so ignore those
     }
 
+    @Override
+    protected int[] getIndexedEntityIds() {
+        return new int[] { mountEntityId };
+    }
+
     public void setHasClipping(boolean clipping) {
         if (this.hasClipping != clipping) {
             this.hasClipping = clipping;
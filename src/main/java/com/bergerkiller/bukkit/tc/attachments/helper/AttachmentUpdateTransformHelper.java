@@ -1,10 +1,10 @@
 package com.bergerkiller.bukkit.tc.attachments.helper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
-import java.util.function.Supplier;
 
 import com.bergerkiller.bukkit.common.math.Matrix4x4;
 import com.bergerkiller.bukkit.tc.attachments.api.Attachment;
@@ -119,39 +119,209 @@ public abstract class AttachmentUpdateTransformHelper {
         }
     }
 
+    /**
+     * Updates attachment trees on a ForkJoinPool. Instead of forking a task for
+     * every attachment, the trees that are started are grouped into batches,
+     * and every batch is processed as a single task. This avoids the overhead of
+     * forking and joining tasks for the many small attachment trees of carts.
+     * When a batch has many attachments left to update, because the trees are
+     * large, part of them is forked onto another thread. The batch tasks are
+     * re-used every tick.
+     */
     private static final class AttachmentUpdateHelperMultiThreaded extends AttachmentUpdateTransformHelper {
-        private final List<ForkJoinTask<Void>> pendingTasks;
+        /** Number of attachment trees updated by a single task */
+        private static final int BATCH_SIZE = 16;
+        private final List<BatchTask> batches;
         private final ForkJoinPool pool;
+        private BatchTask currentBatch;
+        private int numScheduled;
 
         public AttachmentUpdateHelperMultiThreaded(int parallelism) {
-            pendingTasks = new ArrayList<ForkJoinTask<Void>>();
+            batches = new ArrayList<BatchTask>();
             pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false);
+            currentBatch = null;
+            numScheduled = 0;
         }
 
         @Override
         public void start(Attachment attachment, Matrix4x4 initialTransform) {
-            // Create or retrieve the task used for updating
-            ForkJoinTask<Void> task = attachment.getInternalState().updateTransformRecurseAsync(
-                    attachment,
-                    initialTransform,
-                    activeChangeHandler);
+            BatchTask batch = currentBatch;
+            if (batch == null) {
+                if (numScheduled < batches.size()) {
+                    batch = batches.get(numScheduled);
+                    batch.reinitialize();
+                } else {
+                    batch = new BatchTask(activeChangeHandler);
+                    batches.add(batch);
+                }
+                currentBatch = batch;
+            }
+            batch.add(attachment, initialTransform);
+
+            // Schedule it once the batch is full, so processing starts early
+            if (batch.size == BATCH_SIZE) {
+                scheduleCurrentBatch();
+            }
+        }
 
-            // Schedule it
-            pendingTasks.add(task);
-            pool.execute(task);
+        private void scheduleCurrentBatch() {
+            BatchTask batch = currentBatch;
+            if (batch != null) {
+                currentBatch = null;
+                numScheduled++;
+                pool.execute(batch);
+            }
         }
 
         @Override
         public void finish() {
             try {
+                scheduleCurrentBatch();
+
                 // Wait for all tasks to finish. Do in reverse order for better performance.
-                for (int i = pendingTasks.size() - 1; i >= 0; i--) {
-                    pendingTasks.get(i).join();
+                for (int i = numScheduled - 1; i >= 0; i--) {
+                    batches.get(i).join();
                 }
             } finally {
-                pendingTasks.clear();
+                for (int i = 0; i < numScheduled; i++) {
+                    batches.get(i).clear();
+                }
+                numScheduled = 0;
+                currentBatch = null;
                 activeChangeHandler.sync();
             }
         }
     }
+
+    /**
+     * Updates the transform of attachments whose parent transform is already computed,
+     * and then of all their children. Rather than recursing, the attachments are processed
+     * breadth-first, so that the transform of a parent is always computed before its children.
+     * While many attachments remain, half of them are forked onto another thread.
+     *
+     * @param pending Attachments to update, is cleared when done
+     * @param activeChangeHandler Handler for active state changes
+     */
+    private static void updateBreadthFirst(
+            final ArrayList<Attachment> pending,
+            final ActiveChangeHandler activeChangeHandler
+    ) {
+        SplitTask forked = null;
+        try {
+            for (int index = 0; index < pending.size(); index++) {
+                // Hand off the second half of the remaining attachments if there are many
+                int remaining = pending.size() - index;
+                if (remaining >= SplitTask.SPLIT_THRESHOLD) {
+                    List<Attachment> split = pending.subList(index + (remaining >> 1), pending.size());
+                    forked = new SplitTask(new ArrayList<Attachment>(split), activeChangeHandler, forked);
+                    split.clear();
+                    forked.fork();
+                }
+
+                Attachment attachment = pending.get(index);
+                attachment.getInternalState().updateTransform(
+                        attachment,
+                        attachment.getParent().getTransform(),
+                        activeChangeHandler);
+
+                pending.addAll(attachment.getChildren());
+            }
+        } finally {
+            pending.clear();
+
+            // Wait until the forked attachments are done processing
+            for (; forked != null; forked = forked.previous) {
+                forked.join();
+            }
+        }
+    }
+
+    private static final class BatchTask extends ForkJoinTask<Void> {
+        private static final long serialVersionUID = -3510925866305938116L;
+        private final ActiveChangeHandler activeChangeHandler;
+        private final Attachment[] attachments = new Attachment[AttachmentUpdateHelperMultiThreaded.BATCH_SIZE];
+        private final Matrix4x4[] initialTransforms = new Matrix4x4[AttachmentUpdateHelperMultiThreaded.BATCH_SIZE];
+        private final ArrayList<Attachment> pending = new ArrayList<>();
+        private int size = 0;
+
+        public BatchTask(ActiveChangeHandler activeChangeHandler) {
+            this.activeChangeHandler = activeChangeHandler;
+        }
+
+        public void add(Attachment attachment, Matrix4x4 initialTransform) {
+            attachments[size] = attachment;
+            initialTransforms[size] = initialTransform;
+            size++;
+        }
+
+        /**
+         * Clears the attachments of this batch so they can be garbage collected
+         * while the batch isn't used
+         */
+        public void clear() {
+            Arrays.fill(attachments, 0, size, null);
+            Arrays.fill(initialTransforms, 0, size, null);
+            size = 0;
+        }
+
+        @Override
+        public final Void getRawResult() {
+            return null;
+        }
+
+        @Override
+        protected final void setRawResult(Void value) {
+        }
+
+        @Override
+        protected final boolean exec() {
+            // Refresh root attachments using the specified transform
+            // Then update all children of all the trees breadth-first
+            try {
+                for (int i = 0; i < size; i++) {
+                    Attachment attachment = attachments[i];
+                    attachment.getInternalState().updateTransform(
+                            attachment,
+                            initialTransforms[i],
+                            activeChangeHandler);
+
+                    pending.addAll(attachment.getChildren());
+                }
+                updateBreadthFirst(pending, activeChangeHandler);
+            } finally {
+                pending.clear();
+            }
+            return true;
+        }
+    }
+
+    private static final class SplitTask extends ForkJoinTask<Void> {
+        private static final long serialVersionUID = 6131400392584372519L;
+        /** Number of attachments left to update at which half of them are forked */
+        private static final int SPLIT_THRESHOLD = 64;
+        private final ArrayList<Attachment> pending;
+        private final ActiveChangeHandler activeChangeHandler;
+        private final SplitTask previous;
+
+        public SplitTask(ArrayList<Attachment> pending, ActiveChangeHandler activeChangeHandler, SplitTask previous) {
+            this.pending = pending;
+            this.activeChangeHandler = activeChangeHandler;
+            this.previous = previous;
+        }
+
+        @Override
+        public final Void getRawResult() {
+            return null;
+        }
+
+        @Override
+        protected final void setRawResult(Void value) {
+        }
+
+        @Override
+        protected final boolean exec() {
+            updateBreadthFirst(pending, activeChangeHandler);
+            return true;
+        }
+    }
 }
@@ -4,9 +4,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -29,11 +32,13 @@ import com.bergerkiller.bukkit.tc.properties.api.IPropertySelectorCondition;
  */
 public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
     private final Map<String, IPropertySelectorCondition> conditions;
+    private final Set<String> expensiveConditions;
     private final List<SelectorHandlerConditionOption> options;
 
     public TCSelectorHandlerRegistry(TrainCarts plugin) {
         super(plugin);
         this.conditions = new HashMap<>();
+        this.expensiveConditions = new HashSet<>();
         this.options = new ArrayList<>();
 
         // These options always exist - are part of the TCSelectorLocationFilter logic
@@ -57,8 +62,8 @@ public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
                         ? 0.0 : group.head().getRealSpeedLimited();
                 return condition.matchesNumber(speed);
             };
-            registerCondition("speed", speedCondition);
-            registerCondition("velocity", speedCondition);
+            registerCondition("speed", speedCondition, true);
+            registerCondition("velocity", speedCondition, true);
         }
         registerCondition("passengers", (sender, properties, condition) -> {
             MinecartGroup group = properties.getHolder();
@@ -69,7 +74,7 @@ public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
                 }
             }
             return condition.matchesNumber(passengers);
-        });
+        }, true);
         registerCondition("playerpassengers", (sender, properties, condition) -> {
             MinecartGroup group = properties.getHolder();
             if (condition.isNumber()) {
@@ -88,7 +93,7 @@ public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
             } else {
                 return condition.matchesAnyText(Collections.emptyList());
             }
-        });
+        }, true);
         registerCondition("derailed", (sender, properties, condition) -> {
             MinecartGroup group = properties.getHolder();
             if (group == null) {
@@ -102,7 +107,7 @@ public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
                 }
             }
             return condition.matchesBoolean(derailed);
-        });
+        }, true);
         registerCondition("unloaded", (sender, properties, condition) -> {
             return condition.matchesBoolean(!properties.isLoaded());
         });
@@ -118,7 +123,7 @@ public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
             } else {
                 return matchingEntities.anyMatch(e -> e instanceof Player);
             }
-        });
+        }, true);
     }
 
     /**
@@ -129,9 +134,28 @@ public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
      * @param condition The condition to register
      */
     public void registerCondition(String name, IPropertySelectorCondition condition) {
+        registerCondition(name, condition, false);
+    }
+
+    /**
+     * Registers a new @train or @ptrain condition, that can after registration
+     * be used to filter train properties. Expensive conditions, that for example
+     * have to look at all carts or passengers of a train, are evaluated after all
+     * other conditions and the location filter, so they run for as few trains as possible.
+     *
+     * @param name Name of the condition
+     * @param condition The condition to register
+     * @param expensive Whether the condition is expensive to evaluate
+     */
+    public void registerCondition(String name, IPropertySelectorCondition condition, boolean expensive) {
         if (this.conditions.put(name, condition) != null) {
             removeOption(name); // Overwritten, remove previous
         }
+        if (expensive) {
+            this.expensiveConditions.add(name);
+        } else {
+            this.expensiveConditions.remove(name);
+        }
 
         //TODO: Is a hack, needs a way to provide aliases/non-important deprecated conditions
         if (!name.equals("train")) {
@@ -147,6 +171,7 @@ public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
      */
     public void unregisterCondition(String name) {
         if (this.conditions.remove(name) != null) {
+            this.expensiveConditions.remove(name);
             removeOption(name);
         }
     }
@@ -172,6 +197,21 @@ public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
      *                           was specified
      */
     public Collection<TrainProperties> matchTrains(CommandSender sender, List<SelectorCondition> conditions) throws SelectorException {
+        return matchTrains(sender, TrainPropertiesStore.getAll(), conditions);
+    }
+
+    /**
+     * Looks up the trains out of a collection of trains that match a range of selector arguments.
+     *
+     * @param sender Sender that executed the command, can use console sender
+     * @param trains Train properties of the trains to filter
+     * @param conditions Conditions to filter the results by
+     * @return all train properties that match the query
+     * @throws SelectorException If the selection failed, or an incorrect selector argument
+     *                           was specified
+     * @see #matchTrains(CommandSender, List)
+     */
+    public Collection<TrainProperties> matchTrains(CommandSender sender, Collection<TrainProperties> trains, List<SelectorCondition> conditions) throws SelectorException {
         // Check, don't allow returning 'all'
         if (conditions.isEmpty()) {
             throw new SelectorException("No selector conditions were specified");
@@ -180,31 +220,40 @@ public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
         // Make mutable
         conditions = new ArrayList<>(conditions);
 
-        // Stream the properties of all trains on the server
-        Stream<TrainProperties> stream = TrainPropertiesStore.getAll().stream();
+        // Stream the properties of all trains
+        Stream<TrainProperties> stream = trains.stream();
 
-        // Filter trains by world and/or the location coordinates of the carts
+        // Read the world and/or the location coordinates of the carts to filter by
         // Mutates the conditions list to remove the matchers used
-        TCSelectorLocationFilter locationFilter = new TCSelectorLocationFilter();
-        locationFilter.read(sender, conditions);
-        if (locationFilter.hasFilters()) {
-            stream = stream.filter(locationFilter::filter);
-        }
+        Predicate<TrainProperties> locationFilter = readLocationFilter(sender, conditions);
 
         // Sort the stream by the sort and limit parameters
         // Just read the inputs for it first (avoids unknown condition errors)
         TCSelectorSortLimitFilter sortLimitFilter = new TCSelectorSortLimitFilter();
         sortLimitFilter.read(sender, conditions);
 
-        // Filter the stream by all remaining conditions in sequence
+        // Filter the stream by all remaining conditions. Cheap conditions that only check
+        // the properties of the train are checked first, then the location of the carts,
+        // and finally the conditions that are expensive to evaluate.
+        // Filtering the cheap conditions first avoids checking the others for most trains.
+        List<SelectorCondition> expensive = new ArrayList<>();
         for (SelectorCondition selectorCondition : conditions) {
             IPropertySelectorCondition condition = this.conditions.get(selectorCondition.getKey());
-            if (condition != null) {
-                stream = stream.filter(properties -> condition.matches(sender, properties, selectorCondition));
-            } else {
+            if (condition == null) {
                 throw new SelectorException("Unknown condition: " + selectorCondition.getKey());
+            } else if (this.expensiveConditions.contains(selectorCondition.getKey())) {
+                expensive.add(selectorCondition);
+            } else {
+                stream = stream.filter(properties -> condition.matches(sender, properties, selectorCondition));
             }
         }
+        if (locationFilter != null) {
+            stream = stream.filter(locationFilter);
+        }
+        for (SelectorCondition selectorCondition : expensive) {
+            IPropertySelectorCondition condition = this.conditions.get(selectorCondition.getKey());
+            stream = stream.filter(properties -> condition.matches(sender, properties, selectorCondition));
+        }
 
         // Apply sorting/limit rules
         stream = sortLimitFilter.apply(stream);
@@ -218,6 +267,22 @@ public class TCSelectorHandlerRegistry extends SelectorHandlerRegistry {
         return result;
     }
 
+    /**
+     * Reads the world and/or the location coordinates of the carts to filter the trains by.
+     * The conditions used for this are removed from the list.
+     *
+     * @param sender Sender that executed the command
+     * @param conditions Mutable list of conditions
+     * @return Filter that checks the location of a train, or <i>null</i> if no location
+     *         conditions were specified
+     * @throws SelectorException If an incorrect location condition was specified
+     */
+    protected Predicate<TrainProperties> readLocationFilter(CommandSender sender, List<SelectorCondition> conditions) throws SelectorException {
+        TCSelectorLocationFilter locationFilter = new TCSelectorLocationFilter();
+        locationFilter.read(sender, conditions);
+        return locationFilter.hasFilters() ? locationFilter::filter : null;
+    }
+
     /**
      * Checks the registry what options are compatible to be specified
      *
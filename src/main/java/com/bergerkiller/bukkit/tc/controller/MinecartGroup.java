@@ -28,6 +28,7 @@ import com.bergerkiller.bukkit.tc.controller.components.AnimationController;
 import com.bergerkiller.bukkit.tc.controller.components.AttachmentControllerGroup;
 import com.bergerkiller.bukkit.tc.controller.components.SignTrackerGroup;
 import com.bergerkiller.bukkit.tc.controller.components.ObstacleTracker;
+import com.bergerkiller.bukkit.tc.controller.components.NearbyItemCache;
 import com.bergerkiller.bukkit.tc.controller.components.RailState;
 import com.bergerkiller.bukkit.tc.controller.components.RailTracker.TrackedRail;
 import com.bergerkiller.bukkit.tc.controller.components.RailTracker.TrackedRailWalker;
@@ -47,10 +48,12 @@ import com.bergerkiller.bukkit.tc.properties.standard.type.CartLockOrientation;
 import com.bergerkiller.bukkit.tc.properties.standard.type.ChunkLoadOptions;
 import com.bergerkiller.bukkit.tc.properties.standard.type.SlowdownMode;
 import com.bergerkiller.bukkit.tc.rails.RailLookup;
+import com.bergerkiller.bukkit.tc.rails.type.RailTypePowered;
 import com.bergerkiller.bukkit.tc.offline.train.OfflineGroup;
 import com.bergerkiller.bukkit.tc.offline.train.OfflineGroupManager;
 import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCache;
 import com.bergerkiller.bukkit.tc.utils.ChunkArea;
+import com.bergerkiller.bukkit.tc.utils.ForwardChunkArea;
 import com.bergerkiller.bukkit.tc.utils.TrackWalkingPoint;
 import com.bergerkiller.generated.net.minecraft.world.level.chunk.LevelChunkHandle;
 
@@ -79,22 +82,34 @@ import java.util.stream.Collectors;
 public class MinecartGroup extends MinecartGroupStore implements IPropertiesHolder, AnimationController, TrainStatusProvider, TrainCarts.Provider {
     private static final long serialVersionUID = 3;
     private static final LongHashSet chunksBuffer = new LongHashSet(50);
+    /** Interval in ticks at which dormant trains still perform physics, to detect changes to the rails */
+    private static final int DORMANT_REFRESH_INTERVAL = 20;
     private final TrainCarts traincarts;
     protected final ChunkArea chunkArea = new ChunkArea();
     private boolean chunkAreaValid = false;
+    /** Chunk coordinates of all carts, radius and world last used to refresh the chunk area */
+    private long[] chunkAreaCoordinates = new long[0];
+    private int chunkAreaRadius = -1;
+    private World chunkAreaWorld = null;
     private final SignTrackerGroup signTracker = new SignTrackerGroup(this);
     private final RailTrackerGroup railTracker = new RailTrackerGroup(this);
     private final ActionTrackerGroup actionTracker = new ActionTrackerGroup(this);
     private final ObstacleTracker obstacleTracker = new ObstacleTracker(this);
+    private final NearbyItemCache nearbyItemCache = new NearbyItemCache(this);
     private final AttachmentControllerGroup attachmentController = new AttachmentControllerGroup(this);
     protected long lastSync = Long.MIN_VALUE;
     private TrainProperties prop = null;
     private boolean breakPhysics = false;
     private int teleportImmunityTick = 0;
+    /** Spacing correction (x/y/z) for every gap between two carts, re-used every physics step */
+    private double[] spacingCorrection = new double[0];
+    private final Vector spacingDirection = new Vector();
     private double updateSpeedFactor = 1.0;
     private int updateStepCount = 1;
     private int updateStepNr = 1;
     private boolean unloaded = false;
+    private boolean dormant = false;
+    private int idleTicks = 0;
 
     protected MinecartGroup(TrainCarts traincarts) {
         this.traincarts = traincarts;
@@ -1289,6 +1304,68 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
         }
     }
 
+    /**
+     * Calculates the speed factor of all members, used to correct the distance between
+     * the carts. The correction for the gap between two carts is computed only once and
+     * stored in a flat array, then combined for the carts on either side of it. This
+     * produces the same result as {@link MinecartMember#calculateSpeedFactor()}.
+     */
+    private void calculateSpeedFactors() {
+        int count = this.size();
+        if (count == 1 || this.getActions().isMovementControlled()) {
+            for (MinecartMember<?> member : this) {
+                member.setSpeedFactor(0.0, 0.0, 0.0);
+            }
+            return;
+        }
+
+        // Correction for the gap between the carts at index i (front) and i + 1 (back)
+        int gapCount = count - 1;
+        double[] correction = this.spacingCorrection;
+        if (correction.length < (3 * gapCount)) {
+            this.spacingCorrection = correction = new double[3 * gapCount];
+        }
+        Vector direction = this.spacingDirection;
+        for (int i = 0, k = 0; i < gapCount; i++, k += 3) {
+            MinecartMember<?> front = get(i);
+            MinecartMember<?> back = get(i + 1);
+            double gap = MinecartMember.calculateGapAndDirection(back, front, direction);
+            double distanceDiff = ((back.getCartCouplerLength() + front.getCartCouplerLength()) - gap);
+            correction[k] = direction.getX() * distanceDiff;
+            correction[k + 1] = direction.getY() * distanceDiff;
+            correction[k + 2] = direction.getZ() * distanceDiff;
+        }
+
+        // Members move away from the cart in front, and towards the cart behind
+        for (int i = 0; i < count; i++) {
+            MinecartMember<?> member = get(i);
+            if (member.getActions().isMovementControlled()) {
+                member.setSpeedFactor(0.0, 0.0, 0.0);
+                continue;
+            }
+
+            double x = 0.0, y = 0.0, z = 0.0;
+            if (i > 0) {
+                int k = 3 * (i - 1);
+                x -= correction[k];
+                y -= correction[k + 1];
+                z -= correction[k + 2];
+            }
+            if (i < gapCount) {
+                int k = 3 * i;
+                x += correction[k];
+                y += correction[k + 1];
+                z += correction[k + 2];
+            }
+            if (i > 0 && i < gapCount) {
+                x *= 0.5;
+                y *= 0.5;
+                z *= 0.5;
+            }
+            member.setSpeedFactor(x, y, z);
+        }
+    }
+
     /**
      * Gets the average forward motion of all Members of this train. This takes into
      * account the forward orientation of the members, so this method could return
@@ -1475,6 +1552,7 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
 
     @Override
     public void onPropertiesChanged() {
+        this.wakeUp();
         this.getSignTracker().update();
         for (MinecartMember<?> member : this.toArray()) {
             member.onPropertiesChanged();
@@ -1532,6 +1610,16 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
         return this.updateStepCount;
     }
 
+    /**
+     * Gets the number of the update step currently executing, starting at 1 and ending
+     * at {@link #getUpdateStepCount()}.
+     *
+     * @return current update step number
+     */
+    public int getUpdateStepNr() {
+        return this.updateStepNr;
+    }
+
     /**
      * Gets whether the currently executing updates are the first update step.
      * See {@link #getUpdateSpeedFactor()} for an explanation of what this means.
@@ -1692,6 +1780,21 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
      *                   besides refreshing the chunk area should be performed.
      */
     private void updateChunkInformation(boolean keepChunksLoaded, boolean isRemoving) {
+        updateChunkInformation(keepChunksLoaded, isRemoving, false);
+    }
+
+    /**
+     * Refreshes the chunk area, but only if a cart moved into a different chunk, or the
+     * chunk loading radius changed, since the chunk area was last refreshed. Refreshing
+     * the chunk area again when nothing changed has no effect.
+     *
+     * @param keepChunksLoaded Whether to keep chunks loaded
+     */
+    private void updateChunkInformationIfChanged(boolean keepChunksLoaded) {
+        updateChunkInformation(keepChunksLoaded, false, true);
+    }
+
+    private void updateChunkInformation(boolean keepChunksLoaded, boolean isRemoving, boolean onlyIfChanged) {
         /* Timings: updateChunkInformation  (Train Physics) */
         {
             ChunkLoadOptions options;
@@ -1713,8 +1816,14 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
                 radius = 0;
             }
 
+            // Check whether any cart changed chunk since the chunk area was last refreshed
+            World world = this.getWorld();
+            if (!this.updateChunkAreaCoordinates(world, radius) && onlyIfChanged) {
+                return;
+            }
+
             // Refresh the chunk area tracker using this information
-            this.chunkArea.refresh(this.getWorld(), radius, this.loadChunksBuffer());
+            this.chunkArea.refresh(world, radius, this.loadChunksBuffer());
             this.chunkAreaValid = true;
 
             // Keep-chunks-loaded or automatic unloading when moving into unloaded chunks
@@ -1727,6 +1836,9 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
                 // Load chunks closeby right away and guarantee they are loaded at all times
                 for (ChunkArea.OwnedChunk chunk : this.chunkArea.getAll()) {
                     if (chunk.getDistance() <= 1 && chunk.getPreviousDistance() > 1) {
+                        if (TCConfig.logSyncChunkLoads) {
+                            logSyncChunkLoad(chunk);
+                        }
                         chunk.loadChunk();
                     }
                 }
@@ -1743,6 +1855,46 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
         }
     }
 
+    /**
+     * Updates the chunk coordinates of all carts, world and radius remembered for the
+     * chunk area, and returns whether any of them changed.
+     *
+     * @param world Current world of the train
+     * @param radius Chunk area radius
+     * @return True if changed, or the chunk area is not valid
+     */
+    private boolean updateChunkAreaCoordinates(World world, int radius) {
+        int count = this.size();
+        long[] coordinates = this.chunkAreaCoordinates;
+        boolean changed = !this.chunkAreaValid || this.chunkAreaWorld != world || this.chunkAreaRadius != radius;
+        if (coordinates.length != count) {
+            this.chunkAreaCoordinates = coordinates = new long[count];
+            changed = true;
+        }
+        for (int i = 0; i < count; i++) {
+            CommonEntity<?> entity = super.get(i).getEntity();
+            long coord = MathUtil.longHashToLong(entity.loc.x.chunk(), entity.loc.z.chunk());
+            if (coordinates[i] != coord) {
+                coordinates[i] = coord;
+                changed = true;
+            }
+        }
+        this.chunkAreaWorld = world;
+        this.chunkAreaRadius = radius;
+        return changed;
+    }
+
+    private void logSyncChunkLoad(ChunkArea.OwnedChunk chunk) {
+        boolean wasLoaded = chunk.isLoaded();
+        boolean wasPreloaded = this.chunkArea.getForwardChunkArea().isPreloaded(chunk.getX(), chunk.getZ());
+        if (ForwardChunkArea.trackChunkLoad(wasLoaded, wasPreloaded)) {
+            traincarts.getLogger().log(Level.WARNING, "Train " + this.getProperties().getTrainName() +
+                    " sync-loaded chunk " + chunk.getWorld().getName() + " [" + chunk.getX() + ", " + chunk.getZ() + "]" +
+                    " (sync loads: " + ForwardChunkArea.getSyncLoadCount() +
+                    ", avoided by preloading: " + ForwardChunkArea.getSyncLoadAvoidedCount() + ")");
+        }
+    }
+
     public void logCartInfo(String header) {
         StringBuilder msg = new StringBuilder(size() * 7 + 10);
         msg.append(header);
@@ -1766,6 +1918,16 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
         return this.obstacleTracker;
     }
 
+    /**
+     * Gets the cache of dropped items near this train, which is used by carts
+     * to pick up items.
+     *
+     * @return Nearby item cache
+     */
+    public NearbyItemCache getNearbyItemCache() {
+        return this.nearbyItemCache;
+    }
+
     /**
      * Gets the distance and speed of all obstacles up ahead on the tracks.
      * This can be another train, or a mutex zone that blocks further movement.
@@ -1901,6 +2063,11 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
         }
 
         try {
+            // Parked trains skip physics until something happens to them
+            if (this.isDormantTick()) {
+                return;
+            }
+
             double totalforce = this.getAverageForce();
             double speedlimit = this.getProperties().getSpeedLimit();
             double realtimeFactor = this.getProperties().hasRealtimePhysics()
@@ -1954,6 +2121,8 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
                 }
             }
 
+            this.updateDormantState();
+
         } catch (GroupUnloadedException ex) {
             //this group is gone
         } catch (Throwable t) {
@@ -1963,6 +2132,80 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
         }
     }
 
+    /**
+     * Gets whether this train is dormant. A train becomes dormant after it stood still
+     * for {@link TCConfig#dormantTrainTicks} ticks without any actions, passengers or
+     * signs. Dormant trains skip physics until they are moved, receive velocity, or
+     * something else happens to them. Once every {@link #DORMANT_REFRESH_INTERVAL} ticks
+     * physics are still performed, to detect changes to the rails below.
+     *
+     * @return True if this train is dormant
+     */
+    public boolean isDormant() {
+        return this.dormant;
+    }
+
+    /**
+     * Wakes this train up if it is dormant, so that physics are performed again the
+     * next tick.
+     */
+    public void wakeUp() {
+        this.dormant = false;
+        this.idleTicks = 0;
+    }
+
+    private boolean isDormantTick() {
+        if (!this.dormant) {
+            return false;
+        }
+
+        // Wake up when anything changed that requires physics to be performed
+        if (!this.isIdle()) {
+            this.wakeUp();
+            return false;
+        }
+        for (MinecartMember<?> member : this) {
+            if (member.railDetectPositionChange()) {
+                hasPhysicsChanges = true;
+                this.wakeUp();
+                return false;
+            }
+        }
+
+        return (++this.idleTicks % DORMANT_REFRESH_INTERVAL) != 0;
+    }
+
+    private void updateDormantState() {
+        if (TCConfig.dormantTrainTicks <= 0 || !this.isIdle()) {
+            this.wakeUp();
+        } else if (!this.dormant && ++this.idleTicks >= TCConfig.dormantTrainTicks) {
+            this.dormant = true;
+            this.idleTicks = 0;
+        }
+    }
+
+    // Checks whether this train is parked with nothing that could start moving it
+    private boolean isIdle() {
+        if (this.teleportImmunityTick > 0
+                || this.getActions().hasAction()
+                || this.getSignTracker().hasSigns()
+                || this.getProperties().getWaitDistance() > 0.0
+        ) {
+            return false;
+        }
+        for (MinecartMember<?> member : this) {
+            if (member.isUnloaded()
+                    || member.isMoving()
+                    || member.getActions().hasAction()
+                    || member.getEntity().hasPassenger()
+                    || member.getRailType() instanceof RailTypePowered
+            ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private boolean doPhysics_step() throws GroupUnloadedException {
         this.breakPhysics = false;
         try {
@@ -2005,7 +2248,7 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
                     MemberBlockChangeEvent.call(member, member.getLastBlock(), member.getBlock());
                     member.checkMissing();
                     member.onBlockChange(member.getLastBlock(), member.getBlock());
-                    this.getSignTracker().updatePosition();
+                    this.getSignTracker().updateRails();
                     member.checkMissing();
                 }
             }
@@ -2114,9 +2357,7 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
             }
 
             // Calculate the speed factor that will be used to adjust the distance between the minecarts
-            for (MinecartMember<?> member : this) {
-                member.calculateSpeedFactor();
-            }
+            this.calculateSpeedFactors();
 
             // Perform the rail post-movement logic
             /* Timings: onPhysicsPostMove  (Train Physics) */
@@ -2141,7 +2382,13 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
             }
 
             // Refresh chunks - may cause group to unload here
-            this.updateChunkInformation(!this.canUnload(), false);
+            // On the intermediate update steps of a tick, this is only done when
+            // a cart moved into a different chunk. Otherwise, nothing would change.
+            if (this.isLastUpdateStep()) {
+                this.updateChunkInformation(!this.canUnload(), false);
+            } else {
+                this.updateChunkInformationIfChanged(!this.canUnload());
+            }
 
             // Refresh wheel position information, important to do it AFTER updateDirection()
             this.updateWheels();
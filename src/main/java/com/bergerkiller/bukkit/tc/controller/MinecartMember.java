@@ -1906,6 +1906,7 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
 
         // Enable/disable collision handling to improve performance
         if (this.group != null) {
+            this.group.wakeUp();
             CollisionOptions collision = this.group.getProperties().getCollision();
             setEntityCollisionEnabled(collision.collidesWithEntities());
             setBlockCollisionEnabled(collision.blockMode() == CollisionMode.DEFAULT);
@@ -2144,6 +2145,19 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
     public void onActivate() {
     }
 
+    /**
+     * Sets the speed factor used to correct the distance between this Minecart
+     * and its neighbours. Used by the group when calculating the speed factors of
+     * all members at once.
+     *
+     * @param x Speed factor X
+     * @param y Speed factor Y
+     * @param z Speed factor Z
+     */
+    void setSpeedFactor(double x, double y, double z) {
+        this.speedFactor.setX(x).setY(y).setZ(z);
+    }
+
     public void calculateSpeedFactor() {
         this.speedFactor.setX(0.0).setY(0.0).setZ(0.0);
         MinecartGroup group = this.getGroup();
@@ -2292,9 +2306,16 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
                     }
 
                     // Play the sound effect for all players nearby
-                    for (Entity nearby : entity.getNearbyEntities(64.0)) {
-                        if (nearby instanceof Player && !entity.isPassenger(nearby)) {
-                            effect.play(entity.getLocation(), (Player) nearby);
+                    // There are far fewer players on a world than entities nearby, so check those
+                    Location loc = entity.getLocation();
+                    for (Player nearby : entity.getWorld().getPlayers()) {
+                        Location nearbyLoc = nearby.getLocation();
+                        if (Math.abs(nearbyLoc.getX() - loc.getX()) <= 64.0 &&
+                            Math.abs(nearbyLoc.getY() - loc.getY()) <= 64.0 &&
+                            Math.abs(nearbyLoc.getZ() - loc.getZ()) <= 64.0 &&
+                            !entity.isPassenger(nearby)
+                        ) {
+                            effect.play(loc, nearby);
                         }
                     }
                 }
@@ -2705,10 +2726,15 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
      * @return True if position changed
      */
     boolean railDetectPositionChange() {
-        Vector nvel = entity.vel.vector();
-        double fact = MathUtil.getNormalizationFactor(nvel);
+        // Normalized velocity, computed without creating a new Vector as this is called very often
+        double nvelX = entity.vel.getX();
+        double nvelY = entity.vel.getY();
+        double nvelZ = entity.vel.getZ();
+        double fact = MathUtil.getNormalizationFactor(nvelX, nvelY, nvelZ);
         if (fact != Double.POSITIVE_INFINITY && !Double.isNaN(fact)) {
-            nvel.multiply(fact);
+            nvelX *= fact;
+            nvelY *= fact;
+            nvelZ *= fact;
         }
         if (this.lastRailRefreshPosition == null || this.lastRailRefreshDirection == null) {
             this.lastRailRefreshPosition = entity.loc.vector();
@@ -2717,15 +2743,15 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
         } else if (this.lastRailRefreshPosition.getX() != entity.loc.getX()
                 || this.lastRailRefreshPosition.getY() != entity.loc.getY()
                 || this.lastRailRefreshPosition.getZ() != entity.loc.getZ()
-                || this.lastRailRefreshDirection.getX() != nvel.getX()
-                || this.lastRailRefreshDirection.getY() != nvel.getY()
-                || this.lastRailRefreshDirection.getZ() != nvel.getZ()) {
+                || this.lastRailRefreshDirection.getX() != nvelX
+                || this.lastRailRefreshDirection.getY() != nvelY
+                || this.lastRailRefreshDirection.getZ() != nvelZ) {
             this.lastRailRefreshPosition.setX(entity.loc.getX());
             this.lastRailRefreshPosition.setY(entity.loc.getY());
             this.lastRailRefreshPosition.setZ(entity.loc.getZ());
-            this.lastRailRefreshDirection.setX(nvel.getX());
-            this.lastRailRefreshDirection.setY(nvel.getY());
-            this.lastRailRefreshDirection.setZ(nvel.getZ());
+            this.lastRailRefreshDirection.setX(nvelX);
+            this.lastRailRefreshDirection.setY(nvelY);
+            this.lastRailRefreshDirection.setZ(nvelZ);
             return true;
         } else {
             return false;
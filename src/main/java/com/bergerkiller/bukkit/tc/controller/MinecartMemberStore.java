@@ -12,6 +12,7 @@ import com.bergerkiller.bukkit.common.entity.type.*;
 import com.bergerkiller.bukkit.common.offline.OfflineBlock;
 import com.bergerkiller.bukkit.common.utils.*;
 import com.bergerkiller.bukkit.common.wrappers.HumanHand;
+import com.bergerkiller.bukkit.common.wrappers.LongHashSet.LongIterator;
 import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.TrainCarts;
 import com.bergerkiller.bukkit.tc.Util;
@@ -59,9 +60,29 @@ public abstract class MinecartMemberStore {
             if (TrainCarts.isWorldDisabled(world)) {
                 continue;
             }
-            for (org.bukkit.entity.Entity entity : WorldUtil.getEntities(world)) {
-                if (canConvertAutomatically(entity)) {
-                    minecarts.add((Minecart) entity);
+            if (TCConfig.allMinecartsAreTrainCarts) {
+                for (Minecart minecart : world.getEntitiesByClass(Minecart.class)) {
+                    if (canConvertAutomatically(minecart)) {
+                        minecarts.add(minecart);
+                    }
+                }
+            } else {
+                // Only Minecarts of stored trains are converted, so only check the chunks
+                // these were stored in. This avoids going by all entities on the world.
+                // Minecarts in chunks that load in later are converted by the EntityAddEvent.
+                LongIterator chunkIter = plugin.getOfflineGroups().getStoredMinecartChunks(world, 2).longIterator();
+                while (chunkIter.hasNext()) {
+                    long chunk = chunkIter.next();
+                    int cx = MathUtil.longHashMsw(chunk);
+                    int cz = MathUtil.longHashLsw(chunk);
+                    if (!world.isChunkLoaded(cx, cz)) {
+                        continue;
+                    }
+                    for (org.bukkit.entity.Entity entity : WorldUtil.getEntities(world.getChunkAt(cx, cz))) {
+                        if (canConvertAutomatically(entity)) {
+                            minecarts.add((Minecart) entity);
+                        }
+                    }
                 }
             }
         }
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -40,6 +41,7 @@ import com.bergerkiller.bukkit.common.utils.StreamUtil;
 import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.TCSeatChangeListener;
 import com.bergerkiller.bukkit.tc.attachments.api.Attachment;
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentInternalState;
 import com.bergerkiller.bukkit.tc.attachments.api.AttachmentManager;
 import com.bergerkiller.bukkit.tc.attachments.api.AttachmentType;
 import com.bergerkiller.bukkit.tc.attachments.api.AttachmentViewer;
@@ -47,6 +49,7 @@ import com.bergerkiller.bukkit.tc.attachments.config.AttachmentModel;
 import com.bergerkiller.bukkit.tc.attachments.control.CartAttachmentSeat;
 import com.bergerkiller.bukkit.tc.attachments.helper.AttachmentUpdateTransformHelper;
 import com.bergerkiller.bukkit.tc.attachments.helper.HelperMethods;
+import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
 import com.bergerkiller.bukkit.tc.events.seat.MemberBeforeSeatChangeEvent;
 import com.bergerkiller.bukkit.tc.events.seat.MemberBeforeSeatEnterEvent;
@@ -80,6 +83,7 @@ public class AttachmentControllerMember
     private final Map<Attachment, AttachmentNameLookup> cachedNameLookups = new IdentityHashMap<>();
     private Map<Entity, SeatHint> seatHints = new HashMap<Entity, SeatHint>();
     private final Map<Player, AttachmentViewer> viewers = new IdentityHashMap<>();
+    private final Map<Player, AttachmentViewer> culledViewers = new IdentityHashMap<>();
     private final Map<Entity, Vector> previousSeatPositions = new IdentityHashMap<>();
     private final AttachmentWorldFeatures.Tracker worldFeaturesTracker = new AttachmentWorldFeatures.Tracker();
     private boolean changeListenerSeatsAddedOrRemoved = false;
@@ -103,6 +107,8 @@ public class AttachmentControllerMember
     private boolean recreateAfterTeleport = false; // Set if onDetached() is called during teleport
     private Set<Player> viewersAddedWhileTeleporting = Collections.emptySet();
 
+    private final UnchangedTransformTracker unchangedTransformTracker = new UnchangedTransformTracker();
+
     public AttachmentControllerMember(MinecartMember<?> member) {
         this.member = member;
         this.plugin = member.getTrainCarts();
@@ -143,6 +149,7 @@ public class AttachmentControllerMember
             destroyRootAttachmentAndStopTracking();
         } finally {
             viewers.clear();
+            culledViewers.clear();
         }
     }
 
@@ -644,6 +651,12 @@ public class AttachmentControllerMember
         }
 
         AttachmentViewer attachmentViewer = asAttachmentViewer(viewer);
+        if (TCConfig.attachmentViewerCulling && !isVisibleAfterCulling(viewer, getLiveTransform().toVector(), false)) {
+            culledViewers.put(viewer, attachmentViewer);
+            return;
+        }
+
+        culledViewers.remove(viewer);
         viewers.put(viewer, attachmentViewer);
         if (!this.hidden) {
             HelperMethods.makeVisibleRecursive(this.getRootAttachment(), true, attachmentViewer);
@@ -659,6 +672,10 @@ public class AttachmentControllerMember
             return;
         }
 
+        if (culledViewers.remove(viewer) != null) {
+            return; // Was never spawned
+        }
+
         AttachmentViewer attachmentViewer = viewers.remove(viewer);
         if (attachmentViewer == null) {
             attachmentViewer = asAttachmentViewer(viewer);
@@ -689,6 +706,17 @@ public class AttachmentControllerMember
         return this.viewers.values();
     }
 
+    /**
+     * Gets the Players that are within tracking range of this cart, but to which the
+     * attachments are not shown because they cannot see the cart.
+     *
+     * @return culled player viewers
+     * @see TCConfig#attachmentViewerCulling
+     */
+    public synchronized Set<Player> getCulledViewers() {
+        return new HashSet<>(this.culledViewers.keySet());
+    }
+
     @Override
     public AttachmentViewer asAttachmentViewer(Player player) {
         return plugin.getAttachmentViewer(player);
@@ -764,8 +792,46 @@ public class AttachmentControllerMember
     public synchronized void syncPrePositionUpdate(AttachmentUpdateTransformHelper updater) {
         if (isAttached()) {
             syncPrePositionUpdate();
-            updater.start(getRootAttachment(), getLiveTransform());
+            if (!canSkipTransformUpdate()) {
+                updater.start(getRootAttachment(), getLiveTransform());
+            }
+        }
+    }
+
+    /**
+     * Checks whether computing the attachment transforms can be skipped this tick, because
+     * the result would be the same as last tick. This is only done for dormant trains
+     * that have no animations playing, as other trains can change in ways that are not
+     * visible in the position and orientation of the cart.
+     *
+     * @return True if the attachment transforms are unchanged since the previous tick
+     */
+    private boolean canSkipTransformUpdate() {
+        // Check dormant first, so that moving trains don't do any extra work
+        MinecartGroup group = this.member.getGroup();
+        if (group == null || !group.isDormant() ||
+            this.rootAttachment == null || this.isUnloadedOrDead() ||
+            isAnimating()
+        ) {
+            this.unchangedTransformTracker.reset();
+            return false;
+        }
+
+        return this.unchangedTransformTracker.canSkip(this.member.getWheels().getPosition(),
+                                                      this.member.getOrientation(),
+                                                      this.member.getRoll());
+    }
+
+    private boolean isAnimating() {
+        for (Attachment attachment : this.flattenedAttachments) {
+            AttachmentInternalState state = attachment.getInternalState();
+            if (!state.nextAnimationQueue.isEmpty() ||
+                (state.currentAnimation != null && !state.currentAnimation.hasReachedEnd())
+            ) {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
@@ -844,6 +910,64 @@ public class AttachmentControllerMember
         }
 
         this.flattenedAttachments.forEach(Attachment::onTick);
+
+        // Periodically re-evaluate what viewers can see this cart
+        // Spread out the work of different carts over multiple ticks
+        if (TCConfig.attachmentViewerCulling) {
+            if (((CommonUtil.getServerTicks() + this.member.getEntity().getEntityId()) % AttachmentViewerCulling.INTERVAL) == 0) {
+                this.updateCulledViewers();
+            }
+        } else if (!this.culledViewers.isEmpty()) {
+            this.showCulledViewers();
+        }
+    }
+
+    private boolean isVisibleAfterCulling(Player player, Vector position, boolean currentlyVisible) {
+        // Never hide the cart from its own passengers
+        return this.member.getEntity().getPassengers().contains(player)
+                || AttachmentViewerCulling.isVisible(player, position, currentlyVisible);
+    }
+
+    private synchronized void updateCulledViewers() {
+        if (this.teleporting || this.hidden || this.rootAttachment == null) {
+            return;
+        }
+
+        Vector position = this.getLiveTransform().toVector();
+
+        // Cull viewers that can no longer see this cart
+        for (Iterator<Map.Entry<Player, AttachmentViewer>> iter = this.viewers.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry<Player, AttachmentViewer> e = iter.next();
+            if (!isVisibleAfterCulling(e.getKey(), position, true)) {
+                iter.remove();
+                this.culledViewers.put(e.getKey(), e.getValue());
+                HelperMethods.makeHiddenRecursive(this.rootAttachment, true, e.getValue());
+            }
+        }
+
+        // Show attachments again to viewers that can see this cart again
+        // Culled viewers that went away are removed
+        for (Iterator<Map.Entry<Player, AttachmentViewer>> iter = this.culledViewers.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry<Player, AttachmentViewer> e = iter.next();
+            Player player = e.getKey();
+            if (!player.isOnline() || player.getWorld() != this.member.getWorld()) {
+                iter.remove();
+            } else if (isVisibleAfterCulling(player, position, false) && !this.viewers.containsKey(player)) {
+                iter.remove();
+                this.viewers.put(player, e.getValue());
+                HelperMethods.makeVisibleRecursive(this.rootAttachment, true, e.getValue());
+            }
+        }
+    }
+
+    private synchronized void showCulledViewers() {
+        List<Player> culled = new ArrayList<>(this.culledViewers.keySet());
+        this.culledViewers.clear();
+        for (Player player : culled) {
+            if (player.isOnline() && player.getWorld() == this.member.getWorld()) {
+                this.makeVisible(player);
+            }
+        }
     }
 
     @SuppressWarnings("deprecation")
@@ -982,6 +1106,7 @@ public class AttachmentControllerMember
     }
 
     private void updateFlattenedLists() {
+        this.unchangedTransformTracker.reset();
         this.flattenedAttachments = HelperMethods.listAllAttachments(this.rootAttachment);
         this.seatAttachments = this.flattenedAttachments.stream()
                 .filter(attachment -> attachment instanceof CartAttachmentSeat)
@@ -1097,6 +1222,8 @@ public class AttachmentControllerMember
 
     @Override
     public synchronized void onAttachmentChanged(AttachmentConfig attachmentConfig) {
+        this.unchangedTransformTracker.reset();
+
         // Find the live attachment
         Attachment curr = rootAttachment;
         if (curr != null) {
@@ -1143,6 +1270,8 @@ public class AttachmentControllerMember
 
     @Override
     public void onAttachmentAction(AttachmentConfig attachmentConfig, Consumer<Attachment> action) {
+        this.unchangedTransformTracker.reset();
+
         // Find the live attachment
         Attachment curr = rootAttachment;
         if (curr != null) {
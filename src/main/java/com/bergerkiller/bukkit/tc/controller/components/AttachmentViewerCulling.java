@@ -0,0 +1,79 @@
+package com.bergerkiller.bukkit.tc.controller.components;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+
+import com.bergerkiller.bukkit.common.utils.MathUtil;
+
+/**
+ * Decides whether a player that is within tracking range of a cart can actually
+ * see the attachments of that cart. Carts with solid blocks in between (such as
+ * a tunnel underneath the player) are culled.<br>
+ * <br>
+ * The look direction of the player is not used. Players turn around much faster
+ * than culling is re-evaluated, and respawning all attachments of a cart every time
+ * would make them visibly pop into view.<br>
+ * <br>
+ * Different thresholds are used for culling and for showing the attachments again,
+ * so that attachments do not rapidly appear and disappear when near the edge.
+ */
+final class AttachmentViewerCulling {
+    /** Interval in ticks at which culling of viewers is re-evaluated */
+    public static final int INTERVAL = 10;
+    /** Within this distance a cart is never culled */
+    private static final double NEAR_DISTANCE_SHOW = 16.0;
+    private static final double NEAR_DISTANCE_CULL = 24.0;
+    /** Step distance between blocks sampled when checking for occlusion */
+    private static final double OCCLUSION_STEP = 4.0;
+    /** Number of sampled occluding blocks after which the cart is considered hidden */
+    private static final int OCCLUSION_SAMPLES_SHOW = 2;
+    private static final int OCCLUSION_SAMPLES_CULL = 3;
+
+    private AttachmentViewerCulling() {
+    }
+
+    /**
+     * Checks whether a cart at a given position is visible to a player
+     *
+     * @param player Player viewer
+     * @param position Position of the cart
+     * @param currentlyVisible Whether the cart is currently visible to the player
+     * @return True if the cart should be visible
+     */
+    public static boolean isVisible(Player player, Vector position, boolean currentlyVisible) {
+        Location eye = player.getEyeLocation();
+        World world = eye.getWorld();
+        double dx = position.getX() - eye.getX();
+        double dy = position.getY() - eye.getY();
+        double dz = position.getZ() - eye.getZ();
+        double distance = MathUtil.length(dx, dy, dz);
+
+        // Always visible when nearby
+        if (distance <= (currentlyVisible ? NEAR_DISTANCE_CULL : NEAR_DISTANCE_SHOW)) {
+            return true;
+        }
+
+        // Sample blocks along the line between player and cart to check for occlusion
+        // Skip the blocks right near the player and cart themselves
+        int limit = currentlyVisible ? OCCLUSION_SAMPLES_CULL : OCCLUSION_SAMPLES_SHOW;
+        int numOccluding = 0;
+        dx /= distance;
+        dy /= distance;
+        dz /= distance;
+        for (double d = OCCLUSION_STEP; d < (distance - OCCLUSION_STEP); d += OCCLUSION_STEP) {
+            int x = MathUtil.floor(eye.getX() + dx * d);
+            int y = MathUtil.floor(eye.getY() + dy * d);
+            int z = MathUtil.floor(eye.getZ() + dz * d);
+            if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+                continue;
+            }
+            if (world.getBlockAt(x, y, z).getType().isOccluding() && ++numOccluding >= limit) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
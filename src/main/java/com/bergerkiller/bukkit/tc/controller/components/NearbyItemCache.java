@@ -0,0 +1,129 @@
+package com.bergerkiller.bukkit.tc.controller.components;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+
+import com.bergerkiller.bukkit.common.entity.CommonEntity;
+import com.bergerkiller.bukkit.common.utils.CommonUtil;
+import com.bergerkiller.bukkit.common.utils.EntityUtil;
+import com.bergerkiller.bukkit.common.utils.WorldUtil;
+import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
+import com.bergerkiller.bukkit.tc.controller.MinecartMember;
+
+/**
+ * Looks up the dropped items near the carts of a train that can be picked up.
+ * Rather than every cart querying the world for nearby entities, the items
+ * near the entire train are looked up once every physics update step, and
+ * all the carts of the train pick from that list.
+ */
+public class NearbyItemCache {
+    /** Half the width of a Minecart bounding box */
+    private static final double CART_HALF_WIDTH = 0.49;
+    /** Height of a Minecart bounding box */
+    private static final double CART_HEIGHT = 0.7;
+    /** Half the width and the height of an Item bounding box */
+    private static final double ITEM_HALF_WIDTH = 0.125;
+    private static final double ITEM_HEIGHT = 0.25;
+    /** Extra distance to look for items, as carts move during the update step */
+    private static final double MOVEMENT_MARGIN = 1.0;
+    private final MinecartGroup group;
+    private final Location itemLocation = new Location(null, 0.0, 0.0, 0.0);
+    private List<Item> items = Collections.emptyList();
+    private World world = null;
+    private double radius = Double.NaN;
+    private int tick = -1;
+    private int step = -1;
+
+    public NearbyItemCache(MinecartGroup group) {
+        this.group = group;
+    }
+
+    /**
+     * Gets all the dropped items with a bounding box intersecting the bounding box of a
+     * cart grown by a radius. This produces the same items as the Minecart entity's
+     * getNearbyEntities(radius) would, excluding items that are ignored.
+     *
+     * @param member Member of the train
+     * @param radius Radius around the cart to look for items
+     * @return List of items near the cart
+     */
+    public List<Item> getNearbyItems(MinecartMember<?> member, double radius) {
+        List<Item> trainItems = getTrainItems(radius);
+        if (trainItems.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        CommonEntity<?> entity = member.getEntity();
+        double rxz = radius + CART_HALF_WIDTH + ITEM_HALF_WIDTH;
+        double minY = entity.loc.getY() - radius - ITEM_HEIGHT;
+        double maxY = entity.loc.getY() + CART_HEIGHT + radius;
+        List<Item> result = new ArrayList<>();
+        for (Item item : trainItems) {
+            if (item.isDead()) {
+                continue; // Picked up by another cart
+            }
+            Location loc = item.getLocation(this.itemLocation);
+            if (Math.abs(loc.getX() - entity.loc.getX()) <= rxz &&
+                Math.abs(loc.getZ() - entity.loc.getZ()) <= rxz &&
+                loc.getY() >= minY && loc.getY() <= maxY
+            ) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private List<Item> getTrainItems(double radius) {
+        int tick = CommonUtil.getServerTicks();
+        int step = group.getUpdateStepNr();
+        World world = group.getWorld();
+        if (this.tick == tick && this.step == step && this.world == world && this.radius == radius) {
+            return this.items;
+        }
+        this.tick = tick;
+        this.step = step;
+        this.world = world;
+        this.radius = radius;
+
+        // Compute the area covered by all carts of the train
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+        for (MinecartMember<?> member : group) {
+            CommonEntity<?> entity = member.getEntity();
+            minX = Math.min(minX, entity.loc.getX());
+            minY = Math.min(minY, entity.loc.getY());
+            minZ = Math.min(minZ, entity.loc.getZ());
+            maxX = Math.max(maxX, entity.loc.getX());
+            maxY = Math.max(maxY, entity.loc.getY());
+            maxZ = Math.max(maxZ, entity.loc.getZ());
+        }
+        if (world == null || minX > maxX) {
+            return this.items = Collections.emptyList();
+        }
+
+        // Look up all entities in this area, grown by the radius and bounding box sizes
+        double grow = radius + MOVEMENT_MARGIN + CART_HALF_WIDTH + ITEM_HALF_WIDTH;
+        double growY = radius + MOVEMENT_MARGIN + CART_HEIGHT + ITEM_HEIGHT;
+        Location center = new Location(world, 0.5 * (minX + maxX), 0.5 * (minY + maxY), 0.5 * (minZ + maxZ));
+        List<Item> items = Collections.emptyList();
+        for (Entity e : WorldUtil.getNearbyEntities(center,
+                0.5 * (maxX - minX) + grow,
+                0.5 * (maxY - minY) + growY,
+                0.5 * (maxZ - minZ) + grow)
+        ) {
+            if (e instanceof Item && !EntityUtil.isIgnored(e)) {
+                if (items.isEmpty()) {
+                    items = new ArrayList<>();
+                }
+                items.add((Item) e);
+            }
+        }
+        return this.items = items;
+    }
+}
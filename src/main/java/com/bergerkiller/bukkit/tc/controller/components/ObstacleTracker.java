@@ -9,6 +9,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.util.Vector;
 
 import com.bergerkiller.bukkit.common.bases.IntVector3;
@@ -39,6 +41,10 @@ import com.bergerkiller.bukkit.tc.utils.TrackWalkingPoint;
  * speed when the blockage up ahead clears.
  */
 public class ObstacleTracker implements TrainStatusProvider {
+    /** Interval in ticks at which chunks up ahead of the train are preloaded */
+    private static final int PRELOAD_INTERVAL = 10;
+    /** Maximum distance in blocks ahead of the train to preload chunks */
+    private static final double PRELOAD_MAX_DISTANCE = 2000.0;
     private final MinecartGroup group;
     private double waitDistanceLastSpeedLimit = Double.MAX_VALUE;
     private double waitDistanceLastTrainSpeed = Double.MAX_VALUE;
@@ -46,6 +52,8 @@ public class ObstacleTracker implements TrainStatusProvider {
     private ObstacleSpeedLimit lastObstacleSpeedLimit = ObstacleSpeedLimit.NONE;
     private List<MutexZone> enteredMutexZones = Collections.emptyList();
     private int tickCounter = 0;
+    private boolean preloadWaiting = false;
+    private int preloadWaitChunkX, preloadWaitChunkZ;
 
     public ObstacleTracker(MinecartGroup group) {
         this.group = group;
@@ -143,6 +151,15 @@ public class ObstacleTracker implements TrainStatusProvider {
         ObstacleSpeedLimit newDesiredSpeed = getDesiredSpeedLimit(searchAheadDistance,
                 properties.getWaitDeceleration(), checkTrains, true, properties.getWaitDistance());
 
+        // Load chunks up ahead along the route before the train gets there
+        // When preloading was halted at a chunk that is loading, continue as soon as it has loaded
+        if (properties.isKeepingChunksLoaded() && (
+                (tickCounter % PRELOAD_INTERVAL) == 0 ||
+                (this.preloadWaiting && group.getWorld().isChunkLoaded(this.preloadWaitChunkX, this.preloadWaitChunkZ))
+        )) {
+            preloadChunksAhead(trainSpeed);
+        }
+
         // Every time the speed drops to 0 consistently, reset the wait tick timer to 0
         // This causes it to wait until the remaining ticks reaches the configured delay
         if (this.waitDistanceLastSpeedLimit <= 1e-6 && newDesiredSpeed.speed <= 1e-6) {
@@ -351,6 +368,71 @@ public class ObstacleTracker implements TrainStatusProvider {
         return this.lastObstacleSpeedLimit = minimumSpeedLimit(obstacles, deceleration);
     }
 
+    /**
+     * Walks the predicted path of the train up ahead, and asynchronously loads the chunks
+     * it passes through. Only the chunks the train will reach within the configured
+     * {@link TCConfig#keepChunksLoadedPreloadTime} at the current speed are loaded. The
+     * predicted path follows path finding routes and the switchers up ahead.<br>
+     * <br>
+     * Walking the track requires the chunks to be loaded, so the walk halts at the first
+     * chunk that is still loading. Once that chunk has loaded, preloading continues.
+     *
+     * @param trainSpeed Current true speed of the train
+     */
+    private void preloadChunksAhead(double trainSpeed) {
+        this.preloadWaiting = false;
+        double preloadDistance = Math.min(PRELOAD_MAX_DISTANCE, trainSpeed * 20.0 * TCConfig.keepChunksLoadedPreloadTime);
+        if (preloadDistance < 16.0 || group.isEmpty()) {
+            return; // Don't bother, chunks nearby are already kept loaded
+        }
+
+        ForwardChunkArea forwardChunks = group.getChunkArea().getForwardChunkArea();
+        forwardChunks.begin(group.getWorld());
+
+        RailState startState = group.head().discoverRail();
+        startState.setMember(null); // Make sure this is NOT used for prediction
+        TrackWalkingPoint iter = new TrackWalkingPoint(startState);
+        iter.setFollowPredictedPath(group.head());
+        iter.setLoopFilter(true);
+
+        // Keep the chunks loaded a bit longer than the interval, so they stay loaded until the next preload
+        World world = group.getWorld();
+        int expireTicks = 2 * PRELOAD_INTERVAL;
+        int lastChunkX = Integer.MIN_VALUE;
+        int lastChunkZ = Integer.MIN_VALUE;
+        while (iter.movedTotal <= preloadDistance && iter.moveFull()) {
+            Block railBlock = iter.state.railBlock();
+            int cx = railBlock.getX() >> 4;
+            int cz = railBlock.getZ() >> 4;
+            if (cx == lastChunkX && cz == lastChunkZ) {
+                continue;
+            }
+            lastChunkX = cx;
+            lastChunkZ = cz;
+
+            // Preload this chunk and the chunks around it. The next rail could be in any of them.
+            // If any of them are not loaded yet, stop here to avoid loading them synchronously.
+            boolean allLoaded = true;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (!world.isChunkLoaded(cx + dx, cz + dz)) {
+                        allLoaded = false;
+                        this.preloadWaitChunkX = cx + dx;
+                        this.preloadWaitChunkZ = cz + dz;
+                        if (!forwardChunks.preload(cx + dx, cz + dz, expireTicks)) {
+                            return; // Too many chunks are loading on this world, try again later
+                        }
+                    }
+                }
+            }
+            if (!allLoaded) {
+                this.preloadWaiting = true;
+                break;
+            }
+            forwardChunks.preload(cx, cz, expireTicks);
+        }
+    }
+
     /**
      * Looks up ahead on the track for obstacles. These can be other trains, or mutex
      * signs that disallow movement further.
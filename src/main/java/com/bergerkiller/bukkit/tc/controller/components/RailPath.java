@@ -216,22 +216,7 @@ public class RailPath {
         } else if (this.segments.length == 1) {
             return this.segments[0];
         } else {
-            // Find the start segment closest to the position
-            Segment s = null;
-            {
-                double closestDistance = Double.MAX_VALUE;
-                for (int i = 0; i < this.segments.length; i++) {
-                    Segment tmpSegment = this.segments[i];
-                    if (tmpSegment.isZeroLength()) continue;
-                    double tmpTheta = tmpSegment.calcTheta(position);
-                    double tmpDistSquared = tmpSegment.calcDistanceSquared(position, tmpTheta);
-                    if (tmpDistSquared < closestDistance) {
-                        closestDistance = tmpDistSquared;
-                        s = tmpSegment;
-                    }
-                }
-            }
-            return s;
+            return findClosestSegment(position.getX(), position.getY(), position.getZ());
         }
     }
 
@@ -248,12 +233,35 @@ public class RailPath {
         } else if (this.segments.length == 1) {
             return this.segments[0];
         } else {
-            Vector relPos = position.clone();
-            relPos.setX(relPos.getX() - rails.getX());
-            relPos.setY(relPos.getY() - rails.getY());
-            relPos.setZ(relPos.getZ() - rails.getZ());
-            return findSegment(relPos);
+            return findClosestSegment(position.getX() - rails.getX(),
+                                      position.getY() - rails.getY(),
+                                      position.getZ() - rails.getZ());
+        }
+    }
+
+    /**
+     * Finds the start segment closest to the relative position specified.
+     * Does not allocate any temporary vectors.
+     *
+     * @param x - relative coordinate
+     * @param y - relative coordinate
+     * @param z - relative coordinate
+     * @return closest segment, null if all segments are zero-length
+     */
+    private Segment findClosestSegment(double x, double y, double z) {
+        Segment s = null;
+        double closestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < this.segments.length; i++) {
+            Segment tmpSegment = this.segments[i];
+            if (tmpSegment.isZeroLength()) continue;
+            double tmpTheta = tmpSegment.calcTheta(x, y, z);
+            double tmpDistSquared = tmpSegment.calcDistanceSquared(x, y, z, tmpTheta);
+            if (tmpDistSquared < closestDistance) {
+                closestDistance = tmpDistSquared;
+                s = tmpSegment;
+            }
         }
+        return s;
     }
 
     /**
@@ -1492,10 +1500,7 @@ public class RailPath {
          * @return distance squared
          */
         public final double calcDistanceSquared(Vector position, double theta) {
-            Vector segmentPosition = new Vector();
-            calcPosition(segmentPosition, theta);
-            segmentPosition.subtract(position);
-            return segmentPosition.lengthSquared();
+            return calcDistanceSquared(position.getX(), position.getY(), position.getZ(), theta);
         }
 
         /**
@@ -1507,12 +1512,7 @@ public class RailPath {
          * @return distance squared
          */
         public final double calcDistanceSquared(Position position, double theta) {
-            Vector segmentPosition = new Vector();
-            calcPosition(segmentPosition, theta);
-            segmentPosition.setX(segmentPosition.getX() - position.posX);
-            segmentPosition.setY(segmentPosition.getY() - position.posY);
-            segmentPosition.setZ(segmentPosition.getZ() - position.posZ);
-            return segmentPosition.lengthSquared();
+            return calcDistanceSquared(position.posX, position.posY, position.posZ, theta);
         }
 
         /**
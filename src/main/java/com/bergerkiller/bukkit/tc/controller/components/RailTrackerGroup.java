@@ -198,9 +198,8 @@ public class RailTrackerGroup extends RailTracker {
             this.owner.getPlugin().log(Level.INFO, s);
             */
 
-            // TODO: Detect when the rails are changed
-            // Compare rails with prevRails to do so
-            owner.getSignTracker().updatePosition();
+            // Signs are only updated when the rails or signs on them changed
+            owner.getSignTracker().updateRails();
         }
 
         // Remove all previous rails from the rail member cache, and add the new rails
@@ -23,8 +23,11 @@ import java.util.*;
  */
 public class SignTrackerGroup extends SignTracker {
     private final MinecartGroup owner;
+    private static final RailSnapshot[] NO_RAIL_SNAPSHOT = new RailSnapshot[0];
     private final ToggledState needsPositionUpdate = new ToggledState(true);
+    private final ToggledState needsRailsUpdate = new ToggledState(false);
     private final ModificationTrackedList2D<ActiveSign> liveActiveSigns = new ModificationTrackedList2D<>();
+    private RailSnapshot[] railSnapshot = NO_RAIL_SNAPSHOT;
 
     public SignTrackerGroup(MinecartGroup owner) {
         super(owner);
@@ -172,6 +175,35 @@ public class SignTrackerGroup extends SignTracker {
         needsPositionUpdate.set();
     }
 
+    /**
+     * Tells that the rails below the train were refreshed. Unlike {@link #updatePosition()},
+     * the signs and detector regions are only updated if the rails, or the signs on
+     * those rails, changed since the last time they were updated.
+     */
+    public void updateRails() {
+        needsRailsUpdate.set();
+    }
+
+    /**
+     * Checks whether the rails the members are on, or the signs on those rails, differ
+     * from the rails when the signs were last updated.
+     *
+     * @param rails Current rail information of the train
+     * @return True if the rails changed
+     */
+    private boolean hasRailsChanged(List<TrackedRail> rails) {
+        RailSnapshot[] snapshot = this.railSnapshot;
+        if (snapshot.length != rails.size()) {
+            return true;
+        }
+        for (int i = 0; i < snapshot.length; i++) {
+            if (!snapshot[i].isSame(rails.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     @Deprecated
     public boolean removeSign(Block signBlock) {
@@ -219,7 +251,22 @@ public class SignTrackerGroup extends SignTracker {
             }
 
             // Do all active rails, signs and detector regions have to be refreshed?
-            if (needsPositionUpdate.clear()) {
+            // When only the rails were refreshed, this is only needed if the rails
+            // the train is on changed. Most steps the train stays on the same rails.
+            boolean needsUpdate = needsPositionUpdate.clear();
+            if (needsRailsUpdate.clear() && !needsUpdate) {
+                needsUpdate = hasRailsChanged(owner.getRailTracker().getRailInformation());
+            }
+            if (needsUpdate) {
+                // Remember the rails used to compute the signs, to detect changes later
+                {
+                    List<TrackedRail> rails = owner.getRailTracker().getRailInformation();
+                    RailSnapshot[] snapshot = rails.isEmpty() ? NO_RAIL_SNAPSHOT : new RailSnapshot[rails.size()];
+                    for (int i = 0; i < snapshot.length; i++) {
+                        snapshot[i] = new RailSnapshot(rails.get(i));
+                    }
+                    this.railSnapshot = snapshot;
+                }
 
                 // First clear the live active sign buffer of all members
                 for (MinecartMember<?> member : owner) {
@@ -369,4 +416,30 @@ public class SignTrackerGroup extends SignTracker {
             clearOfflineActiveSignKeys();
         }
     }
+
+    /**
+     * The rail piece a member was on, and the signs on it, at the time the
+     * active signs were last updated
+     */
+    private static final class RailSnapshot {
+        private final MinecartMember<?> member;
+        private final RailPiece railPiece;
+        private final TrackedSign[] signs;
+
+        public RailSnapshot(TrackedRail rail) {
+            this.member = rail.member;
+            this.railPiece = rail.state.railPiece();
+            this.signs = getSigns(rail);
+        }
+
+        public boolean isSame(TrackedRail rail) {
+            return this.member == rail.member &&
+                   this.railPiece.equals(rail.state.railPiece()) &&
+                   this.signs == getSigns(rail);
+        }
+
+        private static TrackedSign[] getSigns(TrackedRail rail) {
+            return (rail.state.railType() == RailType.NONE) ? null : rail.state.railSigns();
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package com.bergerkiller.bukkit.tc.controller.components;
+
+import org.bukkit.util.Vector;
+
+import com.bergerkiller.bukkit.common.math.Quaternion;
+
+/**
+ * Tracks the inputs used to compute the attachment transforms of a cart, so that
+ * the transforms of parked carts are not computed again while nothing changes.
+ * Once the transforms were computed {@link #TICKS_BEFORE_SKIP} times with the same
+ * inputs, the previous and current attachment transforms are identical and
+ * further computation can be skipped.
+ */
+public final class UnchangedTransformTracker {
+    public static final int TICKS_BEFORE_SKIP = 2;
+    private double x, y, z, roll;
+    private double qx, qy, qz, qw;
+    private int unchangedTicks = -1;
+
+    /**
+     * Gets whether computing the transforms can be skipped this tick. When this
+     * returns false, the caller must compute the transforms.
+     *
+     * @param position Position of the cart
+     * @param orientation Orientation of the cart
+     * @param roll Roll of the cart
+     * @return True if the inputs did not change for a while and computing can be skipped
+     */
+    public boolean canSkip(Vector position, Quaternion orientation, double roll) {
+        if (this.unchangedTicks == -1 ||
+            position.getX() != this.x ||
+            position.getY() != this.y ||
+            position.getZ() != this.z ||
+            roll != this.roll ||
+            orientation.getX() != this.qx ||
+            orientation.getY() != this.qy ||
+            orientation.getZ() != this.qz ||
+            orientation.getW() != this.qw
+        ) {
+            this.x = position.getX();
+            this.y = position.getY();
+            this.z = position.getZ();
+            this.roll = roll;
+            this.qx = orientation.getX();
+            this.qy = orientation.getY();
+            this.qz = orientation.getZ();
+            this.qw = orientation.getW();
+            this.unchangedTicks = 0;
+            return false;
+        }
+        if (this.unchangedTicks < TICKS_BEFORE_SKIP) {
+            this.unchangedTicks++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Forgets the previous inputs, forcing the transforms to be computed again
+     * for at least {@link #TICKS_BEFORE_SKIP} more ticks
+     */
+    public void reset() {
+        this.unchangedTicks = -1;
+    }
+}
@@ -7,10 +7,13 @@ import com.bergerkiller.bukkit.tc.attachments.control.effect.EffectLoop;
 import org.bukkit.Bukkit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 
@@ -18,13 +21,15 @@ import java.util.logging.Level;
  * Provides {@link EffectLoop.Player} instances for playing effect loops.
  * Each Player is limited to a configurable limit of simultaneously playing
  * effect loops. EffectLoops can be scheduled to play synchronously (main thread)
- * or asynchronously (dedicated asynchronous thread).
+ * or asynchronously (dedicated asynchronous threads). Asynchronous effect loops are
+ * distributed over a configurable number of threads, each playing its own effect loops.
  */
 public class EffectLoopPlayerController implements LibraryComponent, TrainCarts.Provider {
     private final TrainCarts plugin;
     private final Queue<EffectLoop> startPendingSync = new ConcurrentLinkedQueue<>();
     private final List<EffectLoop> syncRunning = new ArrayList<>();
-    private final AsyncWorker asyncWorker = new AsyncWorker(1);
+    private volatile AsyncWorker[] asyncWorkers = new AsyncWorker[] { new AsyncWorker(1) };
+    private final AtomicLong droppedCount = new AtomicLong();
 
     public EffectLoopPlayerController(TrainCarts plugin) {
         this.plugin = plugin;
@@ -59,17 +64,80 @@ public class EffectLoopPlayerController implements LibraryComponent, TrainCarts.
 
     @Override
     public void enable() {
+        // Add more workers as configured. Loops scheduled before now stay on the first worker.
+        AsyncWorker[] workers = Arrays.copyOf(asyncWorkers, TCConfig.effectLoopThreads);
+        for (int i = 1; i < workers.length; i++) {
+            workers[i] = new AsyncWorker(i + 1);
+        }
+        asyncWorkers = workers;
+
         // Start running effect loops once the server finished starting up
-        Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, asyncWorker::start);
+        Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, () -> {
+            for (AsyncWorker worker : workers) {
+                worker.start();
+            }
+        });
     }
 
     @Override
     public void disable() {
-        asyncWorker.stop();
+        for (AsyncWorker worker : asyncWorkers) {
+            worker.stop();
+        }
         syncRunning.clear();
         startPendingSync.clear();
     }
 
+    /**
+     * Gets the number of effect loops that are currently playing, both synchronously
+     * and asynchronously
+     *
+     * @return Number of playing effect loops
+     */
+    public int getPlayingCount() {
+        int count = syncRunning.size() + startPendingSync.size();
+        for (AsyncWorker worker : asyncWorkers) {
+            count += worker.getLoad();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of times an effect loop was not played, because the maximum
+     * number of concurrently playing effect loops was reached
+     *
+     * @return Number of dropped effect loop plays
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Gets the largest delay in nanoseconds by which an asynchronous effect loop thread
+     * advanced its effect loops later than scheduled. High values indicate the threads
+     * cannot keep up, and notes will play out of time.
+     *
+     * @return Maximum timing jitter in nanoseconds
+     */
+    public long getMaxJitterNanos() {
+        long max = 0L;
+        for (AsyncWorker worker : asyncWorkers) {
+            max = Math.max(max, worker.maxJitterNanos);
+        }
+        return max;
+    }
+
+    /**
+     * Resets the statistics returned by {@link #getDroppedCount()} and
+     * {@link #getMaxJitterNanos()}
+     */
+    public void resetStatistics() {
+        droppedCount.set(0L);
+        for (AsyncWorker worker : asyncWorkers) {
+            worker.maxJitterNanos = 0L;
+        }
+    }
+
     /**
      * Advances all {@link EffectLoop.RunMode#SYNCHRONOUS} mode started Effect Loops by
      * a single tick.
@@ -93,7 +161,15 @@ public class EffectLoopPlayerController implements LibraryComponent, TrainCarts.
         if (runMode == EffectLoop.RunMode.SYNCHRONOUS) {
             startPendingSync.add(loop);
         } else {
-            asyncWorker.schedule(loop);
+            // Schedule on the worker playing the fewest effect loops
+            AsyncWorker[] workers = asyncWorkers;
+            AsyncWorker best = workers[0];
+            for (int i = 1; i < workers.length; i++) {
+                if (workers[i].getLoad() < best.getLoad()) {
+                    best = workers[i];
+                }
+            }
+            best.schedule(loop);
         }
     }
 
@@ -101,7 +177,9 @@ public class EffectLoopPlayerController implements LibraryComponent, TrainCarts.
         private static final long INTERVAL = 25_000_000L;
         private final Queue<EffectLoop> startPendingAsync = new ConcurrentLinkedQueue<>();
         private final Thread effectLoopThread;
+        private final AtomicInteger load = new AtomicInteger();
         private volatile boolean stopping = false;
+        private volatile long maxJitterNanos = 0L;
 
         public AsyncWorker(int n) {
             effectLoopThread = new Thread(this::processAsync, "TrainCarts.EffectLoopPlayer" + n);
@@ -119,9 +197,20 @@ public class EffectLoopPlayerController implements LibraryComponent, TrainCarts.
                 effectLoopThread.join(1000);
             } catch (InterruptedException e) {}
             startPendingAsync.clear();
+            load.set(0);
+        }
+
+        /**
+         * Gets the number of effect loops playing or pending to play on this worker
+         *
+         * @return load
+         */
+        public int getLoad() {
+            return load.get();
         }
 
         public void schedule(EffectLoop loop) {
+            load.incrementAndGet();
             startPendingAsync.add(loop);
         }
 
@@ -138,6 +227,12 @@ public class EffectLoopPlayerController implements LibraryComponent, TrainCarts.
                 EffectLoop.Time elapsedTime = EffectLoop.Time.nanos(now - lastTime);
                 lastTime = now;
 
+                // Track how late this worker is running
+                long jitter = now - parkUntil;
+                if (jitter > maxJitterNanos) {
+                    maxJitterNanos = jitter;
+                }
+
                 // Advance
                 parkUntil += INTERVAL;
                 if (now >= (parkUntil + INTERVAL)) {
@@ -149,7 +244,9 @@ public class EffectLoopPlayerController implements LibraryComponent, TrainCarts.
                     for (EffectLoop loop; (loop = startPendingAsync.poll()) != null;) {
                         asyncRunning.add(loop);
                     }
+                    int numRunning = asyncRunning.size();
                     asyncRunning.removeIf(e -> !e.advance(elapsedTime, zero_duration, false));
+                    load.addAndGet(asyncRunning.size() - numRunning);
                 }
             }
         }
@@ -185,6 +282,8 @@ public class EffectLoopPlayerController implements LibraryComponent, TrainCarts.
         public void play(EffectLoop loop, EffectLoop.RunMode runMode) {
             if (semaphore.tryAcquire()) {
                 schedule(new EffectLoopWrap(this, loop), runMode);
+            } else {
+                droppedCount.incrementAndGet();
             }
         }
 
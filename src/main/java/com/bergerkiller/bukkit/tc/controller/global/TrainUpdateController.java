@@ -32,6 +32,13 @@ import com.bergerkiller.bukkit.tc.properties.TrainProperties;
  * train updates entirely (debug)</li>
  * <li>Tracks the server tick rate for the train realtime physics behavior</li>
  * </ul>
+ * Train physics and the network synchronization all run on the main thread, also when
+ * trains are spread over multiple worlds. Physics fires Bukkit events, reads and changes
+ * blocks and entities, and shares caches like the rail lookup and the sign list between
+ * all worlds, none of which can safely be done from other threads. The part of the network
+ * synchronization that can, computing the attachment transforms, is spread over multiple
+ * threads by the {@link AttachmentUpdateTransformHelper} (see
+ * {@link TCConfig#attachmentTransformParallelism}).
  */
 public class TrainUpdateController implements LibraryComponent {
     private final TrainCarts plugin;
@@ -3,7 +3,6 @@ package com.bergerkiller.bukkit.tc.controller.type;
 import com.bergerkiller.bukkit.common.entity.type.CommonMinecartChest;
 import com.bergerkiller.bukkit.common.inventory.CommonItemStack;
 import com.bergerkiller.bukkit.common.inventory.ItemParser;
-import com.bergerkiller.bukkit.common.utils.EntityUtil;
 import com.bergerkiller.bukkit.common.utils.LogicUtil;
 import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.controller.persistence.MinecartInventoryPersistentCartAttribute;
@@ -13,7 +12,6 @@ import com.bergerkiller.bukkit.tc.TrainCarts;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
 import org.bukkit.Effect;
 import org.bukkit.Material;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
@@ -77,11 +75,8 @@ public class MinecartMemberChest extends MinecartMember<CommonMinecartChest> {
         if (this.getProperties().canPickup()) {
             Inventory inv = entity.getInventory();
             double distance;
-            for (Entity e : entity.getNearbyEntities(TCConfig.itemPickupRadius)) {
-                if (!(e instanceof Item) || EntityUtil.isIgnored(e)) {
-                    continue;
-                }
-                CommonItemStack stack = CommonItemStack.of(((Item) e).getItemStack());
+            for (Item e : this.getGroup().getNearbyItemCache().getNearbyItems(this, TCConfig.itemPickupRadius)) {
+                CommonItemStack stack = CommonItemStack.of(e.getItemStack());
                 distance = entity.loc.distanceSquared(e);
                 if (stack.testTransferTo(inv) == stack.getAmount()) {
                     if (distance < 0.7) {
@@ -2,6 +2,7 @@ package com.bergerkiller.bukkit.tc.debug;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import com.bergerkiller.bukkit.common.inventory.CommonItemStack;
 import com.bergerkiller.bukkit.common.math.Matrix4x4;
@@ -9,6 +10,7 @@ import com.bergerkiller.bukkit.common.math.OrientedBoundingBox;
 import com.bergerkiller.bukkit.common.utils.DebugUtil;
 import com.bergerkiller.bukkit.common.utils.LogicUtil;
 import com.bergerkiller.bukkit.common.utils.MaterialUtil;
+import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.utils.PacketUtil;
 import com.bergerkiller.bukkit.common.wrappers.ItemDisplayMode;
 import com.bergerkiller.bukkit.common.wrappers.RelativeFlags;
@@ -389,6 +391,49 @@ public class DebugCommands {
         }
     }
 
+    @CommandRequiresPermission(Permission.DEBUG_COMMAND_DEBUG)
+    @Command("train debug dormant")
+    @CommandDescription("Shows how many loaded trains are dormant, skipping physics while parked")
+    private void commandDebugDormantTrains(
+            final CommandSender sender
+    ) {
+        int numDormant = 0;
+        int numActive = 0;
+        for (MinecartGroup group : MinecartGroupStore.getGroups().cloneAsIterable()) {
+            if (group.isDormant()) {
+                numDormant++;
+            } else {
+                numActive++;
+            }
+        }
+        sender.sendMessage(ChatColor.YELLOW + "Dormant trains: " + ChatColor.WHITE + numDormant +
+                ChatColor.YELLOW + ", active trains: " + ChatColor.WHITE + numActive);
+    }
+
+    @CommandRequiresPermission(Permission.DEBUG_COMMAND_DEBUG)
+    @Command("train debug railcache")
+    @CommandDescription("Shows the size and hit rate of the rail information cache of all worlds")
+    private void commandDebugRailCache(
+            final CommandSender sender
+    ) {
+        List<RailLookup.CacheStatistics> statistics = RailLookup.getStatistics();
+        if (statistics.isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + "No rail information is cached right now");
+            return;
+        }
+        sender.sendMessage(ChatColor.YELLOW + "Rail cache limit per world: " + ChatColor.WHITE +
+                ((TCConfig.cacheMaxEntries > 0) ? Integer.toString(TCConfig.cacheMaxEntries) : "none"));
+        for (RailLookup.CacheStatistics stats : statistics) {
+            sender.sendMessage(ChatColor.YELLOW + stats.worldName + ": " +
+                    ChatColor.WHITE + stats.residentSize + ChatColor.YELLOW + " cached, " +
+                    ChatColor.WHITE + MathUtil.round(100.0 * stats.getHitRate(), 1) + "%" + ChatColor.YELLOW + " hit rate (" +
+                    ChatColor.WHITE + stats.hits + ChatColor.YELLOW + " hits, " +
+                    ChatColor.WHITE + stats.misses + ChatColor.YELLOW + " misses), " +
+                    ChatColor.WHITE + stats.expired + ChatColor.YELLOW + " expired, " +
+                    ChatColor.WHITE + stats.evictions + ChatColor.YELLOW + " evicted");
+        }
+    }
+
     @CommandRequiresPermission(Permission.DEBUG_COMMAND_DEBUG)
     @Command("train debug pvc fly")
     private void commandTestFlight(
@@ -1,16 +1,17 @@
 package com.bergerkiller.bukkit.tc.detector;
 
-import com.bergerkiller.bukkit.common.BlockLocation;
 import com.bergerkiller.bukkit.common.bases.IntVector3;
-import com.bergerkiller.bukkit.common.collections.BlockMap;
 import com.bergerkiller.bukkit.common.collections.ImplicitlySharedList;
 import com.bergerkiller.bukkit.common.config.DataReader;
 import com.bergerkiller.bukkit.common.config.DataWriter;
 import com.bergerkiller.bukkit.common.utils.LogicUtil;
 import com.bergerkiller.bukkit.common.utils.StreamUtil;
+import com.bergerkiller.bukkit.common.wrappers.LongHashMap;
 import com.bergerkiller.bukkit.tc.TrainCarts;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
+import com.bergerkiller.bukkit.tc.controller.MinecartGroupStore;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
+import com.bergerkiller.bukkit.tc.controller.components.RailTracker.TrackedRail;
 import com.bergerkiller.bukkit.tc.rails.RailLookup;
 import com.bergerkiller.bukkit.tc.rails.WorldRailLookup;
 
@@ -30,12 +31,17 @@ import java.util.logging.Level;
  * automatically perform logic when this happens.<br>
  * <br>
  * Detector regions are used by detector signs, but do not require
- * actual signs to exist.
+ * actual signs to exist.<br>
+ * <br>
+ * The regions at rail blocks are stored per world, mapped by packed
+ * block coordinates. The rail lookup cache queries these when a rail
+ * block is first cached, so regions don't keep rail blocks in the
+ * cache.
  */
 public final class DetectorRegion {
     private static boolean hasChanges = false;
     private static HashMap<UUID, DetectorRegion> regionsById = new HashMap<>();
-    private static BlockMap<DetectorRegion[]> regions = new BlockMap<>();
+    private static HashMap<String, LongHashMap<DetectorRegion[]>> regionsByWorld = new HashMap<>();
     private final UUID id;
     private final String world;
     private final Set<IntVector3> coordinates;
@@ -50,25 +56,38 @@ public final class DetectorRegion {
         hasChanges = true;
 
         WorldRailLookup lookup = RailLookup.forWorldIfInitialized(Bukkit.getWorld(world));
+        LongHashMap<DetectorRegion[]> regions = regionsByWorld.computeIfAbsent(world, w -> new LongHashMap<>());
         final DetectorRegion[] singleRegion = new DetectorRegion[] { this };
         for (IntVector3 coord : this.coordinates) {
-            BlockLocation block_coord = new BlockLocation(world, coord);
-            DetectorRegion[] regionsAtBlock = regions.compute(block_coord, (key, array) -> {
-                if (array == null) {
-                    return singleRegion;
-                } else {
-                    int len = array.length;
-                    array = Arrays.copyOf(array, len + 1);
-                    array[len] = DetectorRegion.this;
-                    return array;
-                }
-            });
+            long key = packCoordinates(coord.x, coord.y, coord.z);
+            DetectorRegion[] regionsAtBlock = regions.get(key);
+            if (regionsAtBlock == null) {
+                regionsAtBlock = singleRegion;
+            } else {
+                int len = regionsAtBlock.length;
+                regionsAtBlock = Arrays.copyOf(regionsAtBlock, len + 1);
+                regionsAtBlock[len] = this;
+            }
+            regions.put(key, regionsAtBlock);
             if (lookup.isValid()) {
                 lookup.storeDetectorRegions(coord, regionsAtBlock);
             }
         }
     }
 
+    /**
+     * Packs block coordinates into a single long value, used as key in the
+     * per-world detector region mapping
+     *
+     * @param x Block X-coordinate
+     * @param y Block Y-coordinate
+     * @param z Block Z-coordinate
+     * @return packed key
+     */
+    private static long packCoordinates(int x, int y, int z) {
+        return (((long) x & 0x3FFFFFFL) << 38) | (((long) z & 0x3FFFFFFL) << 12) | ((long) y & 0xFFFL);
+    }
+
     /**
      * Detects all minecarts that are on this region and fires onEnter events.
      * This should be called after the listeners are set up.
@@ -89,21 +108,6 @@ public final class DetectorRegion {
         }
     }
 
-    /**
-     * Fills the rail lookup cache with current detector region information
-     *
-     * @param railLookup
-     */
-    public static void fillRailLookup(WorldRailLookup railLookup) {
-        String worldName = railLookup.getWorld().getName();
-        for (Map.Entry<BlockLocation, DetectorRegion[]> entry : regions.entrySet()) {
-            BlockLocation block = entry.getKey();
-            if (worldName.equals(block.world)) {
-                railLookup.storeDetectorRegions(block.getCoordinates(), entry.getValue());
-            }
-        }
-    }
-
     /**
      * Gets all the regions occuping a particular rails block
      *
@@ -111,13 +115,43 @@ public final class DetectorRegion {
      * @return List of detector regions, empty list if no regions exist
      */
     public static List<DetectorRegion> getRegions(Block at) {
-        DetectorRegion[] regionsAtBlock = regions.get(at);
+        DetectorRegion[] regionsAtBlock = getRegionsAt(at.getWorld().getName(), at.getX(), at.getY(), at.getZ());
         return regionsAtBlock == null ? Collections.emptyList() : Arrays.asList(regionsAtBlock);
     }
 
+    /**
+     * Gets all the regions occupying a particular rails block. Is used by the rail lookup
+     * cache to initialize the detector regions of newly cached rail blocks.
+     *
+     * @param worldName Name of the world of the rails block
+     * @param x Rails block X-coordinate
+     * @param y Rails block Y-coordinate
+     * @param z Rails block Z-coordinate
+     * @return Array of detector regions, or <i>null</i> if no regions exist at this block
+     */
+    public static DetectorRegion[] getRegionsAt(String worldName, int x, int y, int z) {
+        LongHashMap<DetectorRegion[]> regions = regionsByWorld.get(worldName);
+        return (regions == null) ? null : regions.get(packCoordinates(x, y, z));
+    }
+
+    /**
+     * Adds all minecarts currently on rails with detector regions to those regions.
+     * Instead of looking at every coordinate of every region, the rails occupied by
+     * trains are checked.
+     */
     public static void detectAllMinecarts() {
-        for (DetectorRegion region : regionsById.values()) {
-            region.detectMinecarts();
+        if (regionsById.isEmpty()) {
+            return;
+        }
+        for (MinecartGroup group : MinecartGroupStore.getGroups().cloneAsIterable()) {
+            if (group.isUnloaded()) {
+                continue;
+            }
+            for (TrackedRail rail : group.getRailTracker().getRailInformation()) {
+                for (DetectorRegion region : rail.state.railPiece().detectorRegions()) {
+                    rail.member.getSignTracker().addToDetectorRegion(region);
+                }
+            }
         }
     }
 
@@ -143,7 +177,7 @@ public final class DetectorRegion {
     public static DetectorRegion create(final String world, final Set<IntVector3> coordinates) {
         //first check if this region is not already defined
         for (IntVector3 coord : coordinates) {
-            DetectorRegion[] list = regions.get(world, coord);
+            DetectorRegion[] list = getRegionsAt(world, coord.x, coord.y, coord.z);
             if (list != null) {
                 for (DetectorRegion region : list) {
                     if (!region.coordinates.containsAll(coordinates)) continue;
@@ -162,7 +196,7 @@ public final class DetectorRegion {
 
     public static void init(TrainCarts plugin) {
         regionsById.clear();
-        regions.clear();
+        regionsByWorld.clear();
         new DataReader(plugin, "detectorregions.dat") {
             public void read(DataInputStream stream) throws IOException {
                 int count = stream.readInt();
@@ -179,10 +213,14 @@ public final class DetectorRegion {
                     //create
                     new DetectorRegion(id, world, coords);
                 }
+                int blockCount = 0;
+                for (LongHashMap<DetectorRegion[]> regions : regionsByWorld.values()) {
+                    blockCount += regions.size();
+                }
                 if (regionsById.size() == 1) {
-                    plugin.log(Level.INFO, regionsById.size() + " detector rail region loaded covering " + regions.size() + " blocks");
+                    plugin.log(Level.INFO, regionsById.size() + " detector rail region loaded covering " + blockCount + " blocks");
                 } else {
-                    plugin.log(Level.INFO, regionsById.size() + " detector rail regions loaded covering " + regions.size() + " blocks");
+                    plugin.log(Level.INFO, regionsById.size() + " detector rail regions loaded covering " + blockCount + " blocks");
                 }
             }
         }.read();
@@ -384,15 +422,22 @@ public final class DetectorRegion {
         hasChanges = true;
 
         WorldRailLookup lookup = RailLookup.forWorldIfInitialized(Bukkit.getWorld(world));
+        LongHashMap<DetectorRegion[]> regions = regionsByWorld.get(this.world);
+        if (regions == null) {
+            return;
+        }
         for (IntVector3 coord : this.coordinates) {
-            BlockLocation block_coord = new BlockLocation(this.world, coord);
-            DetectorRegion[] regionsAtBlock = regions.computeIfPresent(block_coord, (key, list) -> {
-                if (list.length == 1 && list[0] == DetectorRegion.this) {
-                    return null;
-                } else {
-                    return LogicUtil.removeArrayElement(list, DetectorRegion.this);
-                }
-            });
+            long key = packCoordinates(coord.x, coord.y, coord.z);
+            DetectorRegion[] regionsAtBlock = regions.get(key);
+            if (regionsAtBlock == null) {
+                continue;
+            } else if (regionsAtBlock.length == 1 && regionsAtBlock[0] == this) {
+                regions.remove(key);
+                regionsAtBlock = null;
+            } else {
+                regionsAtBlock = LogicUtil.removeArrayElement(regionsAtBlock, this);
+                regions.put(key, regionsAtBlock);
+            }
             if (lookup.isValid()) {
                 lookup.storeDetectorRegions(coord, regionsAtBlock);
             }
@@ -1,6 +1,8 @@
 package com.bergerkiller.bukkit.tc.offline.train;
 
+import com.bergerkiller.bukkit.common.BlockLocation;
 import com.bergerkiller.bukkit.common.chunk.ForcedChunk;
+import com.bergerkiller.bukkit.common.wrappers.LongHashSet;
 import com.bergerkiller.bukkit.common.offline.OfflineWorld;
 import com.bergerkiller.bukkit.common.offline.OfflineWorldMap;
 import com.bergerkiller.bukkit.common.utils.EntityUtil;
@@ -24,6 +26,7 @@ import org.bukkit.entity.Minecart;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 
@@ -38,9 +41,15 @@ public class OfflineGroupManager implements TrainCarts.Provider {
     Long lastUnloadChunk = null;
     private boolean chunkLoadReq = false;
     private boolean isRefreshingGroups = false;
-    private Map<String, OfflineGroup> containedTrains = new HashMap<>();
-    private HashSet<UUID> containedMinecarts = new HashSet<>();
+    /** Stored groups by train name. Concurrent so lookups by name do not lock the manager */
+    private final Map<String, OfflineGroup> containedTrains = new ConcurrentHashMap<>();
+    /** UUIDs of all stored minecarts. Concurrent so it can be checked without locking the manager */
+    private final Set<UUID> containedMinecarts = ConcurrentHashMap.newKeySet();
+    private final Map<OfflineGroup, OfflineGroupSimulation> simulations = new HashMap<>();
     private final OfflineWorldMap<OfflineGroupWorldLiveImpl> worlds = new OfflineWorldMap<OfflineGroupWorldLiveImpl>();
+    /** Last created snapshot, reset to null when groups are added or removed */
+    private volatile List<OfflineGroupWorld> snapshot = null;
+    private volatile int snapshotModCount = 0;
 
     public OfflineGroupManager(TrainCarts plugin) {
         this.plugin = plugin;
@@ -204,22 +213,44 @@ public class OfflineGroupManager implements TrainCarts.Provider {
 
     /**
      * Takes a snapshot of all offline groups and members currently stored inside this
-     * offline group manager. The returned object can be safely used from any thread.
+     * offline group manager. The returned object can be safely used from any thread.<br>
+     * <br>
+     * The snapshot is re-used until groups are added or removed, so when no trains
+     * loaded or unloaded since the previous snapshot, this does not lock the manager.
      *
      * @return Immutable snapshot of all groups and members in this manager at this time
      */
-    public synchronized List<OfflineGroupWorld> createSnapshot() {
-        List<OfflineGroupWorld> worldSnapshots = new ArrayList<>(worlds.size());
-        Iterator<OfflineGroupWorldLiveImpl> iter = worlds.values().iterator();
-        while (iter.hasNext()) {
-            OfflineGroupWorldLive world = iter.next();
-            if (world.isEmpty()) {
-                iter.remove(); // Clean up empty worlds
-            } else {
-                worldSnapshots.add(world.createSnapshot());
+    public List<OfflineGroupWorld> createSnapshot() {
+        List<OfflineGroupWorld> snapshot = this.snapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        synchronized (this) {
+            int modCount = this.snapshotModCount;
+            List<OfflineGroupWorld> worldSnapshots = new ArrayList<>(worlds.size());
+            Iterator<OfflineGroupWorldLiveImpl> iter = worlds.values().iterator();
+            while (iter.hasNext()) {
+                OfflineGroupWorldLive world = iter.next();
+                if (world.isEmpty()) {
+                    iter.remove(); // Clean up empty worlds
+                } else {
+                    worldSnapshots.add(world.createSnapshot());
+                }
+            }
+            snapshot = Collections.unmodifiableList(worldSnapshots);
+
+            // Only keep it if groups weren't changed asynchronously in the meantime
+            if (this.snapshotModCount == modCount) {
+                this.snapshot = snapshot;
             }
+            return snapshot;
         }
-        return Collections.unmodifiableList(worldSnapshots);
+    }
+
+    private void invalidateSnapshot() {
+        this.snapshotModCount++;
+        this.snapshot = null;
     }
 
     /**
@@ -435,6 +466,7 @@ public class OfflineGroupManager implements TrainCarts.Provider {
             TrainProperties.clearAll();
             synchronized (OfflineGroupManager.this) {
                 worlds.clear();
+                invalidateSnapshot();
             }
 
             return total;
@@ -506,9 +538,12 @@ public class OfflineGroupManager implements TrainCarts.Provider {
     }
 
     public synchronized void deinit() {
+        simulations.values().forEach(OfflineGroupSimulation::close);
+        simulations.clear();
         worlds.clear();
         containedMinecarts.clear();
         containedTrains.clear();
+        invalidateSnapshot();
     }
 
     /**
@@ -557,24 +592,116 @@ public class OfflineGroupManager implements TrainCarts.Provider {
         OfflineGroupWorldLiveImpl map = get(group.world);
         group.updateLoadedChunks(map);
         map.add(group);
+
+        if (TCConfig.simulateUnloadedTrains) {
+            OfflineGroupSimulation simulation = OfflineGroupSimulation.create(plugin, group);
+            if (simulation != null) {
+                simulations.put(group, simulation);
+            }
+        }
+    }
+
+    /**
+     * Moves trains that unloaded while on their way to a destination along their route.
+     * When the chunk at the position such a train has reached is loaded, the train is
+     * restored at that position. See {@link TCConfig#simulateUnloadedTrains}.
+     *
+     * @param ticks Number of ticks elapsed since the previous update
+     */
+    public synchronized void updateSimulations(int ticks) {
+        if (simulations.isEmpty()) {
+            return;
+        }
+
+        List<OfflineGroupSimulation> toMaterialize = new ArrayList<>();
+        for (Iterator<OfflineGroupSimulation> iter = simulations.values().iterator(); iter.hasNext();) {
+            OfflineGroupSimulation simulation = iter.next();
+            OfflineGroup group = simulation.getGroup();
+
+            // Group was removed, renamed or its world unloaded
+            if (containedTrains.get(group.name) != group || !group.world.isLoaded()) {
+                simulation.close();
+                iter.remove();
+                continue;
+            }
+
+            // Waiting for the chunks to load in so the train restores
+            if (simulation.isMaterializing()) {
+                if (simulation.isMaterializeTimedOut()) {
+                    plugin.log(Level.WARNING, "Failed to restore simulated train '" + group.name + "' in time");
+                    simulation.close();
+                    iter.remove();
+                }
+                continue;
+            }
+
+            simulation.advance(ticks);
+            if (simulation.hasMoved()) {
+                BlockLocation location = simulation.getCurrentNode().location;
+                World world = group.world.getLoadedWorld();
+                if (world.isChunkLoaded(location.x >> 4, location.z >> 4)) {
+                    toMaterialize.add(simulation);
+                }
+            }
+        }
+
+        // Done outside the loop, as loading chunks can restore trains
+        for (OfflineGroupSimulation simulation : toMaterialize) {
+            simulation.materialize(simulation.getGroup().world.getLoadedWorld());
+        }
+    }
+
+    /**
+     * Gets the number of unloaded trains whose movement is being simulated
+     *
+     * @return simulated train count
+     */
+    public synchronized int getSimulatedCount() {
+        return simulations.size();
     }
 
     /**
      * Check if a minecart is in an offline group<br>
-     * Used to check if a minecart can be linked
+     * Used to check if a minecart can be linked. Does not lock the manager,
+     * so this can be called often, and from any thread.
      *
      * @param uniqueId of the Minecart
      */
-    public synchronized boolean containsMinecart(UUID uniqueId) {
+    public boolean containsMinecart(UUID uniqueId) {
         return containedMinecarts.contains(uniqueId);
     }
 
+    /**
+     * Gets the coordinates of all the chunks near the minecarts of the trains stored
+     * on a world. The entities of stored trains are found in these chunks.
+     *
+     * @param world World
+     * @param radius Radius of chunks around the chunk each minecart was stored in
+     * @return Set of chunk coordinates
+     */
+    public synchronized LongHashSet getStoredMinecartChunks(World world, int radius) {
+        LongHashSet chunks = new LongHashSet();
+        OfflineGroupWorldLiveImpl map = worlds.get(world);
+        if (map != null) {
+            for (OfflineGroup group : map.getGroups()) {
+                for (OfflineMember member : group.members) {
+                    for (int cx = member.cx - radius; cx <= member.cx + radius; cx++) {
+                        for (int cz = member.cz - radius; cz <= member.cz + radius; cz++) {
+                            chunks.add(cx, cz);
+                        }
+                    }
+                }
+            }
+        }
+        return chunks;
+    }
+
     public synchronized int getStoredMemberCount(World world) {
         OfflineGroupWorldLiveImpl map = worlds.get(world);
         return (map == null) ? 0 : map.totalMemberCount();
     }
 
-    public synchronized int getStoredCount() {
+    public int getStoredCount() {
         return containedTrains.size();
     }
 
@@ -588,11 +715,11 @@ public class OfflineGroupManager implements TrainCarts.Provider {
         return count;
     }
 
-    public synchronized boolean contains(String trainname) {
+    public boolean contains(String trainname) {
         return containedTrains.containsKey(trainname);
     }
 
-    public synchronized boolean containsInLoadedWorld(String trainname) {
+    public boolean containsInLoadedWorld(String trainname) {
         OfflineGroup offlineGroup = containedTrains.get(trainname);
         return offlineGroup != null && offlineGroup.world.isLoaded();
     }
@@ -628,15 +755,8 @@ public class OfflineGroupManager implements TrainCarts.Provider {
         }
     }
 
-    public synchronized OfflineGroup findGroup(String groupName) {
-        for (OfflineGroupWorldLive map : worlds.values()) {
-            for (OfflineGroup group : map.getGroups()) {
-                if (group.name.equals(groupName)) {
-                    return group;
-                }
-            }
-        }
-        return null;
+    public OfflineGroup findGroup(String groupName) {
+        return containedTrains.get(groupName);
     }
 
     public OfflineMember findMember(String groupName, UUID uuid) {
@@ -659,7 +779,11 @@ public class OfflineGroupManager implements TrainCarts.Provider {
 
         public void restoreGroup(OfflineGroup group) {
             this.remove(group);
-            group.create(manager.plugin);
+            MinecartGroup restored = group.create(manager.plugin);
+            OfflineGroupSimulation simulation = manager.simulations.remove(group);
+            if (simulation != null) {
+                simulation.onRestored(restored);
+            }
         }
 
         public void refreshGroups() {
@@ -691,6 +815,7 @@ public class OfflineGroupManager implements TrainCarts.Provider {
         @Override
         public void add(OfflineGroup group) {
             super.add(group);
+            manager.invalidateSnapshot();
             manager.containedTrains.put(group.name, group);
             for (OfflineMember member : group.members) {
                 manager.containedMinecarts.add(member.entityUID);
@@ -700,6 +825,7 @@ public class OfflineGroupManager implements TrainCarts.Provider {
         @Override
         public void remove(OfflineGroup group) {
             super.remove(group);
+            manager.invalidateSnapshot();
             manager.containedTrains.remove(group.name);
             for (OfflineMember member : group.members) {
                 manager.containedMinecarts.remove(member.entityUID);
@@ -0,0 +1,279 @@
+package com.bergerkiller.bukkit.tc.offline.train;
+
+import com.bergerkiller.bukkit.common.bases.IntVector3;
+import com.bergerkiller.bukkit.common.chunk.ForcedChunk;
+import com.bergerkiller.bukkit.common.entity.type.CommonMinecart;
+import com.bergerkiller.bukkit.common.offline.OfflineWorld;
+import com.bergerkiller.bukkit.common.utils.CommonUtil;
+import com.bergerkiller.bukkit.common.utils.MathUtil;
+import com.bergerkiller.bukkit.tc.TrainCarts;
+import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
+import com.bergerkiller.bukkit.tc.controller.MinecartGroupStore;
+import com.bergerkiller.bukkit.tc.controller.MinecartMember;
+import com.bergerkiller.bukkit.tc.controller.components.RailJunction;
+import com.bergerkiller.bukkit.tc.controller.components.RailPiece;
+import com.bergerkiller.bukkit.tc.pathfinding.PathConnection;
+import com.bergerkiller.bukkit.tc.pathfinding.PathNode;
+import com.bergerkiller.bukkit.tc.pathfinding.PathWorld;
+import com.bergerkiller.bukkit.tc.properties.TrainProperties;
+import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCache;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.util.Vector;
+
+import java.util.List;
+
+/**
+ * Simulates the movement of a train that unloaded while on its way to a destination.
+ * The train is moved along the path finding route at the speed it had when it unloaded,
+ * without loading any chunks. When the chunk of the path node the train has reached
+ * is loaded, for example because a player came near, the chunks the train unloaded in
+ * are loaded again. Once the train restores, it is teleported to that path node.<br>
+ * <br>
+ * Only the distance between path finding nodes is simulated. The simulated train
+ * does not move past a connection between nodes that has signs that could stop the
+ * train, such as stations, waiters or mutex zones. If other trains or mutex zones are
+ * near the path node the train reached, it is not teleported and restores where it
+ * unloaded instead.
+ */
+final class OfflineGroupSimulation {
+    /** Number of ticks the chunks of a train are kept loaded waiting for it to restore */
+    private static final int MATERIALIZE_TIMEOUT = 60 * 20;
+    /** Extra distance around the teleported train that must be free of other trains */
+    private static final double TELEPORT_CLEARANCE = 2.0;
+    private final OfflineGroup group;
+    private final PathNode start;
+    private final PathConnection[] route;
+    private final double speed;
+    private int routeIndex = 0;
+    private double distanceOnEdge = 0.0;
+    private List<ForcedChunk> forcedChunks = null;
+    private int materializeDeadline = 0;
+
+    private OfflineGroupSimulation(OfflineGroup group, PathNode start, PathConnection[] route, double speed) {
+        this.group = group;
+        this.start = start;
+        this.route = route;
+        this.speed = speed;
+    }
+
+    /**
+     * Creates a simulation for a group that just unloaded. Returns null if the
+     * train is not moving, or has no route to a destination.
+     *
+     * @param plugin TrainCarts plugin instance
+     * @param group Offline group that unloaded
+     * @return simulation, or null if the group cannot be simulated
+     */
+    public static OfflineGroupSimulation create(TrainCarts plugin, OfflineGroup group) {
+        World world = group.world.getLoadedWorld();
+        TrainProperties properties = TrainProperties.get(group.name);
+        if (world == null || properties == null || !properties.hasDestination() || !group.isMoving()) {
+            return null;
+        }
+
+        PathWorld pathWorld = plugin.getPathProvider().getWorld(world);
+        PathNode start = pathWorld.getNodeByName(properties.getLastPathNode());
+        PathNode destination = pathWorld.getNodeByName(properties.getDestination());
+        if (start == null || destination == null || start == destination) {
+            return null;
+        }
+
+        PathConnection[] route = start.findRoute(destination);
+        if (route.length == 0 || route[0].mayStopTrain) {
+            return null;
+        }
+
+        // Average speed of the carts when the train unloaded, limited by the speed limit
+        double speed = 0.0;
+        for (OfflineMember member : group.members) {
+            speed += Math.sqrt(member.motX * member.motX + member.motY * member.motY + member.motZ * member.motZ);
+        }
+        speed = Math.min(speed / group.members.length, properties.getSpeedLimit());
+
+        return new OfflineGroupSimulation(group, start, route, speed);
+    }
+
+    public OfflineGroup getGroup() {
+        return group;
+    }
+
+    /**
+     * Gets the last path finding node the simulated train has passed
+     *
+     * @return current node
+     */
+    public PathNode getCurrentNode() {
+        return (routeIndex == 0) ? start : route[routeIndex - 1].destination;
+    }
+
+    /**
+     * Gets whether the simulated train has passed at least one path finding node
+     * since it unloaded
+     *
+     * @return True if moved past a node
+     */
+    public boolean hasMoved() {
+        return routeIndex > 0;
+    }
+
+    /**
+     * Gets whether the simulated train has reached its destination
+     *
+     * @return True if the destination was reached
+     */
+    public boolean isArrived() {
+        return routeIndex >= route.length;
+    }
+
+    /**
+     * Gets whether the simulated train stopped moving, because it reached its destination,
+     * or the next connection has signs that could stop the train
+     *
+     * @return True if stopped
+     */
+    public boolean isStopped() {
+        return routeIndex >= route.length || route[routeIndex].mayStopTrain;
+    }
+
+    /**
+     * Gets whether the chunks of the train are being loaded, so that it can be
+     * restored at the simulated position.
+     *
+     * @return True if materializing
+     */
+    public boolean isMaterializing() {
+        return forcedChunks != null;
+    }
+
+    /**
+     * Gets whether the chunks of the train have been loading for too long, after
+     * which the simulation should be aborted.
+     *
+     * @return True if materializing timed out
+     */
+    public boolean isMaterializeTimedOut() {
+        return forcedChunks != null && CommonUtil.getServerTicks() > materializeDeadline;
+    }
+
+    /**
+     * Moves the simulated train along the route
+     *
+     * @param ticks Number of ticks that elapsed since the previous advance
+     */
+    public void advance(int ticks) {
+        if (isStopped()) {
+            return;
+        }
+        distanceOnEdge += speed * ticks;
+        while (!isStopped() && distanceOnEdge >= route[routeIndex].distance) {
+            distanceOnEdge -= route[routeIndex].distance;
+            routeIndex++;
+        }
+        if (isStopped()) {
+            distanceOnEdge = 0.0;
+        }
+    }
+
+    /**
+     * Asynchronously loads the chunks the train unloaded in. Once loaded, the train is
+     * restored, and {@link #onRestored(MinecartGroup)} should be called.
+     *
+     * @param world World the train is on
+     */
+    public void materialize(World world) {
+        if (forcedChunks == null) {
+            forcedChunks = group.forceLoadChunks(world);
+            materializeDeadline = CommonUtil.getServerTicks() + MATERIALIZE_TIMEOUT;
+        }
+    }
+
+    /**
+     * Called once the train has been restored. Teleports the train to the path node
+     * the simulated train reached, and releases the chunks kept loaded.
+     *
+     * @param restoredGroup The restored train, null if it could not be restored
+     */
+    public void onRestored(MinecartGroup restoredGroup) {
+        try {
+            if (restoredGroup != null && hasMoved()) {
+                PathNode node = getCurrentNode();
+                Block railBlock = node.location.getBlock();
+                if (railBlock != null && !isOccupied(restoredGroup, railBlock)) {
+                    if (isArrived()) {
+                        // Direction doesn't matter much, the train stops at its destination
+                        restoredGroup.teleport(railBlock, findJunctionDirection(railBlock, null));
+                        restoredGroup.stop();
+                    } else {
+                        Vector direction = findJunctionDirection(railBlock, route[routeIndex].junctionName);
+                        restoredGroup.teleportAndGo(railBlock, direction);
+                    }
+                }
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Releases the chunks kept loaded, if any
+     */
+    public void close() {
+        if (forcedChunks != null) {
+            forcedChunks.forEach(ForcedChunk::close);
+            forcedChunks = null;
+        }
+    }
+
+    /**
+     * Checks whether other trains or mutex zones are near the rails the restored train
+     * would be teleported to. In that case the train is left where it unloaded.
+     *
+     * @param restoredGroup Restored train
+     * @param railBlock Rail block of the path node the train would be teleported to
+     * @return True if the train should not be teleported there
+     */
+    private static boolean isOccupied(MinecartGroup restoredGroup, Block railBlock) {
+        // The train is placed along the rails starting at the rail block, so check its whole length
+        double radius = TELEPORT_CLEARANCE;
+        for (MinecartMember<?> member : restoredGroup) {
+            radius += member.getEntity().getWidth() + 2.0 * member.getCartCouplerLength();
+        }
+
+        // Mutex zones, which the train would otherwise enter without claiming them
+        World world = railBlock.getWorld();
+        IntVector3 railPosition = new IntVector3(railBlock.getX(), railBlock.getY(), railBlock.getZ());
+        if (MutexZoneCache.forWorld(OfflineWorld.of(world)).isMutexZoneNearby(railPosition, MathUtil.ceil(radius))) {
+            return true;
+        }
+
+        // Other trains
+        double x = railBlock.getX() + 0.5;
+        double y = railBlock.getY() + 0.5;
+        double z = railBlock.getZ() + 0.5;
+        double radiusSquared = radius * radius;
+        for (MinecartGroup group : MinecartGroupStore.getGroups().cloneAsIterable()) {
+            if (group == restoredGroup || group.getWorld() != world) {
+                continue;
+            }
+            for (MinecartMember<?> member : group) {
+                CommonMinecart<?> entity = member.getEntity();
+                if (MathUtil.distanceSquared(entity.loc.getX(), entity.loc.getY(), entity.loc.getZ(), x, y, z) <= radiusSquared) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Vector findJunctionDirection(Block railBlock, String junctionName) {
+        List<RailJunction> junctions = RailPiece.create(railBlock).getJunctions();
+        for (RailJunction junction : junctions) {
+            if (junctionName != null && junction.name().equals(junctionName)) {
+                return junction.position().getMotion();
+            }
+        }
+        return junctions.isEmpty() ? new Vector(0.0, 0.0, 1.0) : junctions.get(0).position().getMotion();
+    }
+}
@@ -11,9 +11,16 @@ public class PathConnection {
     public final double distance;
     public final String junctionName;
     public final PathNode destination;
+    /**
+     * Whether signs that could stop or redirect a train were found between the two nodes.
+     * This is not stored, so connections loaded from disk or combined from multiple connections
+     * are assumed to have such signs until path finding discovers them again.
+     */
+    public final boolean mayStopTrain;
 
     public PathConnection(PathNode destination, DataInputStream stream) throws IOException {
         this.destination = destination;
+        this.mayStopTrain = true;
 
         int dist_in = stream.readInt();
         if (dist_in == Integer.MAX_VALUE) {
@@ -49,9 +56,14 @@ public class PathConnection {
     }
 
     public PathConnection(PathNode destination, double distance, String junctionName) {
+        this(destination, distance, junctionName, true);
+    }
+
+    public PathConnection(PathNode destination, double distance, String junctionName, boolean mayStopTrain) {
         this.destination = destination;
         this.distance = Math.max(1e-4, distance);
         this.junctionName = junctionName;
+        this.mayStopTrain = mayStopTrain;
     }
 
     @Override
@@ -209,23 +209,36 @@ public class PathNode {
      * @return The connection that was made
      */
     public PathConnection addNeighbour(final PathNode to, final double distance, final String junctionName) {
+        return addNeighbour(to, distance, junctionName, true);
+    }
+
+    /**
+     * Adds a neighbour connection to this node
+     *
+     * @param to        the node to make a connection with
+     * @param distance  of the connection
+     * @param junctionName of the connection
+     * @param mayStopTrain whether signs that could stop a train exist between the nodes
+     * @return The connection that was made
+     */
+    public PathConnection addNeighbour(final PathNode to, final double distance, final String junctionName, final boolean mayStopTrain) {
         PathConnection conn;
         Iterator<PathConnection> iter = this.neighbors.iterator();
         while (iter.hasNext()) {
             conn = iter.next();
             if (conn.destination == to) {
-                if (conn.distance <= distance) {
+                if (conn.distance < distance || (conn.distance == distance && conn.mayStopTrain == mayStopTrain)) {
                     // Lower distance is contained - all done
                     return conn;
                 } else {
-                    // Higher distance is contained - remove old element
+                    // Higher distance is contained, or the signs in between changed - remove old element
                     iter.remove();
                     break;
                 }
             }
         }
         // Add a new one
-        conn = new PathConnection(to, distance, junctionName);
+        conn = new PathConnection(to, distance, junctionName, mayStopTrain);
         addNeighbourFast(conn);
         world.getProvider().scheduleNodeIfNotRecentlyRouted(to);
         world.markChanged();
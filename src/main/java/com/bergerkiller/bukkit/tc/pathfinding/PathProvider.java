@@ -17,6 +17,16 @@ import com.bergerkiller.bukkit.tc.events.SignActionEvent;
 import com.bergerkiller.bukkit.tc.rails.RailLookup;
 import com.bergerkiller.bukkit.tc.rails.type.RailType;
 import com.bergerkiller.bukkit.tc.signactions.SignAction;
+import com.bergerkiller.bukkit.tc.signactions.SignActionAnimate;
+import com.bergerkiller.bukkit.tc.signactions.SignActionAnnounce;
+import com.bergerkiller.bukkit.tc.signactions.SignActionBukkitEffect;
+import com.bergerkiller.bukkit.tc.signactions.SignActionDestination;
+import com.bergerkiller.bukkit.tc.signactions.SignActionDetector;
+import com.bergerkiller.bukkit.tc.signactions.SignActionEffect;
+import com.bergerkiller.bukkit.tc.signactions.SignActionSound;
+import com.bergerkiller.bukkit.tc.signactions.SignActionSwitcher;
+import com.bergerkiller.bukkit.tc.signactions.SignActionTitle;
+import com.bergerkiller.bukkit.tc.signactions.SignActionTrigger;
 import com.bergerkiller.bukkit.tc.signactions.SignActionType;
 import com.bergerkiller.bukkit.tc.utils.TrackWalkingPoint;
 
@@ -759,6 +769,7 @@ public class PathProvider extends Task implements LibraryComponent, TrainCarts.P
         private final TrackWalkingPoint p;
         private final PathNode startNode;
         private final String junctionName;
+        private boolean mayStopTrain = false;
 
         public PathFindOperation(PathProvider provider, PathNode startNode, RailState state, RailJunction junction) {
             this.provider = provider;
@@ -775,6 +786,16 @@ public class PathProvider extends Task implements LibraryComponent, TrainCarts.P
                         handler.process(event);
                     }
 
+                    // Remember whether signs were passed that could stop trains driving this connection
+                    if (!mayStopTrain) {
+                        for (RailLookup.TrackedSign trackedSign : event.railPiece().signs()) {
+                            if (!trackedSign.isRemoved() && mayStopTrain(trackedSign.getAction())) {
+                                mayStopTrain = true;
+                                break;
+                            }
+                        }
+                    }
+
                     // Process results
                     PathNode foundNode = event.getLastSetNode();
                     if (foundNode != null && !startNode.location.equals(foundNode.location)) {
@@ -787,7 +808,7 @@ public class PathProvider extends Task implements LibraryComponent, TrainCarts.P
                         }
 
                         // Add neighbour
-                        startNode.addNeighbour(foundNode, totalDistance, getJunctionName());
+                        startNode.addNeighbour(foundNode, totalDistance, getJunctionName(), mayStopTrain);
                         if (DEBUG_MODE) {
                             event.provider().getTrainCarts().log(Level.INFO, "MADE CONNECTION FROM " +
                                     startNode.getDisplayName() + " TO " + foundNode.getDisplayName());
@@ -829,6 +850,27 @@ public class PathProvider extends Task implements LibraryComponent, TrainCarts.P
         }
     }
 
+    /**
+     * Gets whether a sign action could stop, hold or redirect a train passing it.
+     * Only sign actions known to leave the train moving on the same track are not.
+     *
+     * @param action Sign action, null if the sign has none
+     * @return True if the sign could stop the train
+     */
+    public static boolean mayStopTrain(SignAction action) {
+        return action != null
+                && !(action instanceof SignActionDestination)
+                && !(action instanceof SignActionSwitcher)
+                && !(action instanceof SignActionAnnounce)
+                && !(action instanceof SignActionSound)
+                && !(action instanceof SignActionEffect)
+                && !(action instanceof SignActionBukkitEffect)
+                && !(action instanceof SignActionTitle)
+                && !(action instanceof SignActionDetector)
+                && !(action instanceof SignActionTrigger)
+                && !(action instanceof SignActionAnimate);
+    }
+
     /**
      * Queries all registered routing handlers while navigating over the track
      *
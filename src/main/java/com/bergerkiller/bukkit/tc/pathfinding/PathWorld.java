@@ -143,6 +143,25 @@ public class PathWorld implements TrainCarts.Provider {
         }
     }
 
+    /**
+     * Schedules all nodes that have connections with the specified stop flag to be routed again.
+     * Should be called when a sign that could stop a train is built or destroyed, as it is not
+     * known which connections pass by that sign.
+     *
+     * @param mayStopTrain Stop flag of the connections to discover again
+     * @see PathProvider#mayStopTrain(com.bergerkiller.bukkit.tc.signactions.SignAction)
+     */
+    public void rerouteConnectionsWithStopFlag(boolean mayStopTrain) {
+        for (PathNode node : getNodes()) {
+            for (PathConnection conn : node.getNeighbours()) {
+                if (conn.mayStopTrain == mayStopTrain) {
+                    _provider.scheduleNode(node);
+                    break;
+                }
+            }
+        }
+    }
+
     public void clearAll() {
         _nodes.clear();
         _blockNodes.clear();
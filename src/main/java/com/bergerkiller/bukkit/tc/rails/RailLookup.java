@@ -246,6 +246,21 @@ public final class RailLookup {
         verifyTimer = ++lifeTimer + TCConfig.cacheVerificationTicks;
     }
 
+    /**
+     * Gets the statistics of the rail lookup caches of all worlds that currently
+     * have one. Counters are reset when the cache of a world is removed, which
+     * happens when the world unloads or the cache stays empty for a long time.
+     *
+     * @return List of cache statistics, one entry per world
+     */
+    public static List<CacheStatistics> getStatistics() {
+        List<CacheStatistics> result = new ArrayList<>(byWorld.size());
+        for (WorldRailLookupImpl lookup : byWorld.values()) {
+            result.add(lookup.getStatistics());
+        }
+        return result;
+    }
+
     /**
      * Searches from the position of a sign block for the RailPiece that is coupled
      * with that sign, if that sign were to be triggered (by redstone, for example).
@@ -411,6 +426,43 @@ public final class RailLookup {
         }
     }
 
+    /**
+     * Snapshot of the statistics of the rail lookup cache of a single World
+     */
+    public static final class CacheStatistics {
+        /** Name of the World */
+        public final String worldName;
+        /** Number of rail block positions currently cached */
+        public final int residentSize;
+        /** Number of lookups that found information in the cache */
+        public final long hits;
+        /** Number of lookups that had to discover the information */
+        public final long misses;
+        /** Number of positions removed because they were not accessed for a while */
+        public final long expired;
+        /** Number of positions removed because the cache exceeded the maximum size */
+        public final long evictions;
+
+        CacheStatistics(String worldName, int residentSize, long hits, long misses, long expired, long evictions) {
+            this.worldName = worldName;
+            this.residentSize = residentSize;
+            this.hits = hits;
+            this.misses = misses;
+            this.expired = expired;
+            this.evictions = evictions;
+        }
+
+        /**
+         * Gets the fraction of lookups that found information in the cache
+         *
+         * @return hit rate, between 0.0 and 1.0
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return (total == 0) ? 0.0 : ((double) hits / (double) total);
+        }
+    }
+
     /**
      * Exception thrown by the lookup cache if a rail type is specified that was not
      * registered inside the RailType lookup table. This might happen when a rail type
@@ -23,10 +23,10 @@ import org.bukkit.block.BlockFace;
 import com.bergerkiller.bukkit.common.bases.IntVector3;
 import com.bergerkiller.bukkit.common.offline.OfflineBlock;
 import com.bergerkiller.bukkit.common.offline.OfflineWorld;
-import com.bergerkiller.bukkit.common.utils.BlockUtil;
 import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.BlockData;
+import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.TrainCarts;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
 import com.bergerkiller.bukkit.tc.controller.components.RailPath;
@@ -35,6 +35,7 @@ import com.bergerkiller.bukkit.tc.controller.components.RailState;
 import com.bergerkiller.bukkit.tc.controller.global.SignControllerWorld;
 import com.bergerkiller.bukkit.tc.detector.DetectorRegion;
 import com.bergerkiller.bukkit.tc.rails.RailLookup.TrackedSign;
+import com.bergerkiller.bukkit.tc.rails.type.BlockDataSnapshot;
 import com.bergerkiller.bukkit.tc.rails.type.RailType;
 import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCache;
 import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCacheWorld;
@@ -56,6 +57,12 @@ import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCacheWorld;
  * validated every tick, such as by checking signs exist and the rail type still
  * detects the rail block as a valid rail.<br>
  * <br>
+ * The cache is not persisted across restarts. Cached rails expire shortly after they
+ * stop being used (see {@link com.bergerkiller.bukkit.tc.TCConfig#cacheExpireTicks}),
+ * so while the server runs rails are re-discovered all the time, and a freshly started
+ * server is no colder than one that has been running for a while. Rail types are also
+ * provided by other plugins, whose rail logic cannot be restored from disk.<br>
+ * <br>
  * This lookup is not multi-thread safe and all access must be done from the main
  * Bukkit thread.
  */
@@ -73,17 +80,21 @@ final class WorldRailLookupImpl implements WorldRailLookup {
     // Per-world data
     private final TrainCarts traincarts;
     private World world;
+    private final String worldName;
     private OfflineWorld offlineWorld;
     private Map<IntVector3, Bucket> cache;
     private List<Bucket> cacheValues;
     private MutexZoneCacheWorld mutexZones;
     private SignControllerWorld signController;
     private int ticksWithEmptyCache;
+    // Statistics
+    private long statHits, statMisses, statExpired, statEvictions;
 
     WorldRailLookupImpl(TrainCarts traincarts, World world) {
         this.traincarts = traincarts;
         this.offlineWorld = OfflineWorld.of(world);
         this.world = world;
+        this.worldName = world.getName();
         this.cache = new HashMap<>();
         this.cacheValues = new ArrayList<>();
         this.mutexZones = MutexZoneCache.forWorld(this.offlineWorld);
@@ -98,8 +109,6 @@ final class WorldRailLookupImpl implements WorldRailLookup {
     void initialize() {
         // NOW we can start activating signs (sign action loaded events are fired)
         this.signController.initialize();
-
-        DetectorRegion.fillRailLookup(this);
     }
 
     @Override
@@ -192,8 +201,10 @@ final class WorldRailLookupImpl implements WorldRailLookup {
         IntVector3 cacheKey = createCacheKey(coordinates);
         Bucket inCache = cache.get(cacheKey);
         if (inCache != null) {
+            statHits++;
             return inCache.getRailsAtPosition();
         }
+        statMisses++;
 
         // We need to create a new bucket at this position. While we could initialize one
         // with rail type NONE and proceed from there, it results in a bucket to be created
@@ -209,8 +220,10 @@ final class WorldRailLookupImpl implements WorldRailLookup {
         IntVector3 cacheKey = createCacheKey(positionBlock);
         Bucket inCache = cache.get(cacheKey);
         if (inCache != null) {
+            statHits++;
             return inCache.getRailsAtPosition();
         }
+        statMisses++;
 
         // We need to create a new bucket at this position. While we could initialize one
         // with rail type NONE and proceed from there, it results in a bucket to be created
@@ -276,6 +289,7 @@ final class WorldRailLookupImpl implements WorldRailLookup {
         IntVector3 cacheKey = createCacheKey(railOfflineBlock);
         Bucket inCache = cache.get(cacheKey);
         if (inCache == null) {
+            statMisses++;
             if (!railType.isRegistered()) {
                 throw new RailLookup.RailTypeNotRegisteredException(railType);
             }
@@ -292,6 +306,7 @@ final class WorldRailLookupImpl implements WorldRailLookup {
         //
         // In other cases, entries are added to the 'next' chain to represent them, including
         // NONE if this is required.
+        statHits++;
         RailType inCacheType = inCache.type();
         if (inCacheType == railType) {
             return inCache;
@@ -446,13 +461,65 @@ final class WorldRailLookupImpl implements WorldRailLookup {
     }
 
     void update(int deadTimeout) {
+        int sizeBefore = cacheValues.size();
         refreshBuckets(b -> b.checkStillValid(deadTimeout), false);
+        int sizeAfter = cacheValues.size();
+        statExpired += sizeBefore - sizeAfter;
+
+        // If too much is cached, get rid of information that wasn't used this tick until
+        // the cache is back at the maximum size. Once it is, the remaining entries are kept.
+        // Rails with signs are more expensive to discover, so try to keep those first
+        // Rails with members on them are never removed, as that would lose state
+        final int maxEntries = TCConfig.cacheMaxEntries;
+        if (maxEntries > 0 && sizeAfter > maxEntries) {
+            int evicted = refreshBuckets(b -> b.isAccessedThisTick() || b.signs.length > 0, false, sizeAfter - maxEntries);
+            if (evicted < (sizeAfter - maxEntries)) {
+                evicted += refreshBuckets(Bucket::isAccessedThisTick, false, sizeAfter - maxEntries - evicted);
+            }
+            statEvictions += evicted;
+        }
+    }
+
+    RailLookup.CacheStatistics getStatistics() {
+        return new RailLookup.CacheStatistics(worldName, cacheValues.size(),
+                statHits, statMisses, statExpired, statEvictions);
     }
 
     private void refreshBuckets(Predicate<Bucket> validChecker, boolean ignoreCanBePurged) {
-        for (ListIterator<Bucket> iter = cacheValues.listIterator(); iter.hasNext();) {
-            Bucket bucket = iter.next();
-            if (validChecker.test(bucket) || (!ignoreCanBePurged && !bucket.canBePurged(bucket.next == null))) {
+        refreshBuckets(validChecker, ignoreCanBePurged, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes all buckets that fail the valid checker, until the maximum number of entries
+     * have been removed. Entries past that point are kept as they are. The surviving entries
+     * are compacted into a new list in a single pass, rather than removing them one by one.
+     *
+     * @param validChecker Checks whether a bucket is still valid
+     * @param ignoreCanBePurged Whether to remove invalid buckets that can not be purged
+     * @param maxRemoved Maximum number of entries to remove from the cache
+     * @return Number of entries that were removed
+     */
+    private int refreshBuckets(Predicate<Bucket> validChecker, boolean ignoreCanBePurged, int maxRemoved) {
+        if (cacheValues.isEmpty()) {
+            return 0;
+        }
+
+        // Survivors are only copied into a new list once the first entry is removed
+        List<Bucket> values = cacheValues;
+        List<Bucket> survivors = null;
+        int removed = 0;
+        for (int i = 0, size = values.size(); i < size; i++) {
+            Bucket bucket = values.get(i);
+            if (removed >= maxRemoved) {
+                // Removed enough, keep the rest as-is
+                if (survivors == null) {
+                    break;
+                }
+                survivors.add(bucket);
+                continue;
+            }
+
+            if (validChecker.test(bucket) || (!ignoreCanBePurged && !bucket.canBePurged())) {
                 // Only remove invalid buckets from the next chain
                 bucket.removeInvalidBucketsFromChain(validChecker, ignoreCanBePurged);
             } else {
@@ -463,24 +530,41 @@ final class WorldRailLookupImpl implements WorldRailLookup {
                     bucket = bucket.next;
                     if (bucket == null) {
                         // No more buckets, remove entirely
-                        iter.remove();
                         cache.remove(cacheKey);
+                        if (survivors == null) {
+                            survivors = new ArrayList<>(size);
+                            survivors.addAll(values.subList(0, i));
+                        }
+                        removed++;
                         break;
-                    } else if (validChecker.test(bucket) || (!ignoreCanBePurged && !bucket.canBePurged(true))) {
+                    } else if (validChecker.test(bucket) || (!ignoreCanBePurged && !bucket.canBePurged())) {
                         // Set this one, instead. Do remove further next entries that aren't valid
                         bucket.removeInvalidBucketsFromChain(validChecker, ignoreCanBePurged);
-                        iter.set(bucket);
                         cache.put(cacheKey, bucket);
+                        if (survivors == null) {
+                            values.set(i, bucket);
+                        }
                         break;
                     }
                 }
+                if (bucket == null) {
+                    continue;
+                }
             }
+            if (survivors != null) {
+                survivors.add(bucket);
+            }
+        }
+        if (survivors != null) {
+            cacheValues = survivors;
         }
+        return removed;
     }
 
     @Override
     public void storeDetectorRegions(IntVector3 coordinates, DetectorRegion[] regions) {
-        for (Bucket b = getOrCreateAtCoordinates(coordinates); b != null; b = b.next) {
+        // Buckets created later on will look up the detector regions themselves
+        for (Bucket b = this.cache.get(createCacheKey(coordinates)); b != null; b = b.next) {
             b.detectorRegions = (regions == null || regions.length == 0) ? RailLookup.NO_DETECTOR_REGIONS : regions;
         }
     }
@@ -488,7 +572,11 @@ final class WorldRailLookupImpl implements WorldRailLookup {
     @Override
     public DetectorRegion[] getDetectorRegions(IntVector3 coordinates) {
         Bucket bucket = this.cache.get(createCacheKey(coordinates));
-        return (bucket == null) ? RailLookup.NO_DETECTOR_REGIONS : bucket.detectorRegions;
+        if (bucket != null) {
+            return bucket.detectorRegions;
+        }
+        DetectorRegion[] regions = DetectorRegion.getRegionsAt(worldName, coordinates.x, coordinates.y, coordinates.z);
+        return (regions == null) ? RailLookup.NO_DETECTOR_REGIONS : regions;
     }
 
     @Override
@@ -496,26 +584,6 @@ final class WorldRailLookupImpl implements WorldRailLookup {
         return this.cache.keySet();
     }
 
-    /**
-     * Gets or creates a Bucket for storing metadata at particular Block coordinates.
-     * Does not perform any Block access (finding rail type / signs / etc.) if no such bucket
-     * exists yet, as it's meant to be fast.
-     *
-     * @param coordinates Block coordinates
-     * @return Bucket
-     */
-    private Bucket getOrCreateAtCoordinates(IntVector3 coordinates) {
-        IntVector3 cacheKey = createCacheKey(coordinates);
-        Bucket bucket = this.cache.get(cacheKey);
-        if (bucket == null) {
-            bucket = new Bucket(this.offlineWorld.getBlockAt(coordinates),
-                                 BlockUtil.getBlock(this.world, coordinates));
-            this.cache.put(cacheKey, bucket);
-            this.cacheValues.add(bucket);
-        }
-        return bucket;
-    }
-
     /**
      * Called to initialize a new Bucket with the rail pieces that exist at a given
      * Block position. Is optimized to refer to itself if the rails happen to coincide
@@ -540,50 +608,49 @@ final class WorldRailLookupImpl implements WorldRailLookup {
 
         /* Timings: findRailInfo  (Rail Type Cache) */
         {
-            for (RailType type : RailType.values()) {
+            for (FoundRails found : findAllRails(positionBlock, true)) {
+                RailType type = found.type;
                 try {
-                    List<Block> rails = type.findRails(positionBlock);
-                    if (!rails.isEmpty()) {
-                        // During this we might end up deleting 'ourselves' if the rail type of this bucket is NONE,
-                        // and a rail is found with the same block position as ourselves.
-                        Bucket bucketInCache = null;
-
-                        // Fill this array with the found buckets
-                        Bucket[] newRailsAtPosition = new Bucket[rails.size()];
-                        int index = 0;
-
-                        for (Block railsBlock : rails) {
-                            if (railsBlock.getX() == positionBlock.getX() &&
-                                railsBlock.getY() == positionBlock.getY() &&
-                                railsBlock.getZ() == positionBlock.getZ())
-                            {
-                                // As the bucket for this type is being calculated, it's never going to find more
-                                // than one type here, so this is safe.
-                                bucketInCache = new Bucket(positionOfflineBlock, positionBlock, type);
-                                newRailsAtPosition[index++] = bucketInCache;
-                            }
-                            else
-                            {
-                                // Need to look it up in the cache. This bucket won't get replaced.
-                                OfflineBlock railsOfflineBlock = offlineWorld.getBlockAt(railsBlock.getX(), railsBlock.getY(), railsBlock.getZ());
-                                newRailsAtPosition[index++] = lookupRailBucket(railsOfflineBlock, railsBlock, type);
-                            }
+                    List<Block> rails = found.rails;
+                    // During this we might end up deleting 'ourselves' if the rail type of this bucket is NONE,
+                    // and a rail is found with the same block position as ourselves.
+                    Bucket bucketInCache = null;
+
+                    // Fill this array with the found buckets
+                    Bucket[] newRailsAtPosition = new Bucket[rails.size()];
+                    int index = 0;
+
+                    for (Block railsBlock : rails) {
+                        if (railsBlock.getX() == positionBlock.getX() &&
+                            railsBlock.getY() == positionBlock.getY() &&
+                            railsBlock.getZ() == positionBlock.getZ())
+                        {
+                            // As the bucket for this type is being calculated, it's never going to find more
+                            // than one type here, so this is safe.
+                            bucketInCache = new Bucket(positionOfflineBlock, positionBlock, type);
+                            newRailsAtPosition[index++] = bucketInCache;
                         }
-
-                        // If block itself isn't a rail then we must initialize it as NONE initially
-                        if (bucketInCache == null) {
-                            bucketInCache = new Bucket(positionOfflineBlock, positionBlock);
+                        else
+                        {
+                            // Need to look it up in the cache. This bucket won't get replaced.
+                            OfflineBlock railsOfflineBlock = offlineWorld.getBlockAt(railsBlock.getX(), railsBlock.getY(), railsBlock.getZ());
+                            newRailsAtPosition[index++] = lookupRailBucket(railsOfflineBlock, railsBlock, type);
                         }
+                    }
+
+                    // If block itself isn't a rail then we must initialize it as NONE initially
+                    if (bucketInCache == null) {
+                        bucketInCache = new Bucket(positionOfflineBlock, positionBlock);
+                    }
 
-                        // Put it in the cache
-                        addToCache(cacheKey, bucketInCache);
-                        bucketInCache.rails_at_position = newRailsAtPosition;
+                    // Put it in the cache
+                    addToCache(cacheKey, bucketInCache);
+                    bucketInCache.rails_at_position = newRailsAtPosition;
 
-                        // Compute signs now that bucket is registered
-                        bucketInCache.signs = RailLookup.discoverSignsAtRailPiece(bucketInCache);
+                    // Compute signs now that bucket is registered
+                    bucketInCache.signs = RailLookup.discoverSignsAtRailPiece(bucketInCache);
 
-                        return newRailsAtPosition;
-                    }
+                    return newRailsAtPosition;
                 } catch (Throwable t) {
                     RailType.handleCriticalError(type, t);
                 }
@@ -597,6 +664,52 @@ final class WorldRailLookupImpl implements WorldRailLookup {
         return NO_RAILS_AT_POSITION;
     }
 
+    /**
+     * Queries all registered rail types for the rails they have at a position block.
+     * While doing so a {@link BlockDataSnapshot} is open, so that the blocks the
+     * different rail types look at are only read once. No other logic is run while
+     * the snapshot is open, so block changes cannot go unnoticed.
+     *
+     * @param positionBlock Position block
+     * @param stopAtFirst Whether to stop querying rail types once one found rails
+     * @return List of rail types that found rails, in registration order
+     */
+    private static List<FoundRails> findAllRails(Block positionBlock, boolean stopAtFirst) {
+        List<FoundRails> result = Collections.emptyList();
+        BlockDataSnapshot.open();
+        try {
+            for (RailType type : RailType.values()) {
+                try {
+                    List<Block> rails = type.findRails(positionBlock);
+                    if (!rails.isEmpty()) {
+                        if (result.isEmpty()) {
+                            result = new ArrayList<>(2);
+                        }
+                        result.add(new FoundRails(type, rails));
+                        if (stopAtFirst) {
+                            break;
+                        }
+                    }
+                } catch (Throwable t) {
+                    RailType.handleCriticalError(type, t);
+                }
+            }
+        } finally {
+            BlockDataSnapshot.close();
+        }
+        return result;
+    }
+
+    private static final class FoundRails {
+        public final RailType type;
+        public final List<Block> rails;
+
+        public FoundRails(RailType type, List<Block> rails) {
+            this.type = type;
+            this.rails = rails;
+        }
+    }
+
     private void addToCache(IntVector3 cacheKey, Bucket bucket) {
         cache.put(cacheKey, bucket);
         cacheValues.add(bucket);
@@ -674,6 +787,12 @@ final class WorldRailLookupImpl implements WorldRailLookup {
             this.rail_life = RailLookup.lifeTimer;
             this.rails_at_position_life = 0; // Needs to be calculated
             this.rails_at_position = NO_RAILS_AT_POSITION;
+
+            IntVector3 position = offlineBlock.getPosition();
+            DetectorRegion[] regions = DetectorRegion.getRegionsAt(worldName, position.x, position.y, position.z);
+            if (regions != null) {
+                this.detectorRegions = regions;
+            }
         }
 
         /**
@@ -710,25 +829,26 @@ final class WorldRailLookupImpl implements WorldRailLookup {
             return false;
         }
 
+        /**
+         * Gets whether this bucket's rail or rail-at-position information was accessed
+         * during the current tick
+         *
+         * @return True if accessed this tick
+         */
+        public boolean isAccessedThisTick() {
+            return this.rail_life >= RailLookup.lifeTimer ||
+                   this.rails_at_position_life >= RailLookup.lifeTimerAtPosition;
+        }
+
         /**
          * Checks whether it is safe to delete this Bucket without causing a loss of data/state
          *
-         * @param isOnlyBucketAtBlock Whether this is the last Bucket remaining that is mapped to
-         *                            particular Rail Block coordinates
          * @return True if this Bucket can be purged from the cache
          */
-        private boolean canBePurged(boolean isOnlyBucketAtBlock) {
+        private boolean canBePurged() {
             // Members must remain cached
-            if (!this.members.isEmpty()) {
-                return false;
-            }
-
-            // At least one bucket at the Block must exist that preserves the detector regions
-            if (isOnlyBucketAtBlock && this.detectorRegions != RailLookup.NO_DETECTOR_REGIONS) {
-                return false;
-            }
-
-            return true;
+            // Detector regions are looked up again when the bucket is re-created
+            return this.members.isEmpty();
         }
 
         /**
@@ -809,7 +929,7 @@ final class WorldRailLookupImpl implements WorldRailLookup {
             Bucket curr = this;
             Bucket next;
             while ((next = curr.next) != null) {
-                if (validChecker.test(next) || (!ignoreCanBePurged && !next.canBePurged(false))) {
+                if (validChecker.test(next) || (!ignoreCanBePurged && !next.canBePurged())) {
                     curr = next;
                 } else {
                     next.rail_life = 0;
@@ -873,44 +993,43 @@ final class WorldRailLookupImpl implements WorldRailLookup {
 
             /* Timings: findRailInfo  (Rail Type Cache) */
             {
-                for (RailType type : RailType.values()) {
+                for (FoundRails found : findAllRails(positionBlock, false)) {
+                    RailType type = found.type;
                     try {
-                        List<Block> rails = type.findRails(positionBlock);
-                        if (!rails.isEmpty()) {
-                            // During this we might end up deleting 'ourselves' if the rail type of this bucket is NONE,
-                            // and a rail is found with the same block position as ourselves.
-                            RailType bucketInCacheType = bucketInCache.type();
-
-                            // Fill this array with the found buckets
-                            int index = newRailsAtPosition.length;
-                            newRailsAtPosition = Arrays.copyOf(newRailsAtPosition, index + rails.size());
-
-                            for (Block railsBlock : rails) {
-                                if (railsBlock.getX() == positionBlock.getX() &&
-                                    railsBlock.getY() == positionBlock.getY() &&
-                                    railsBlock.getZ() == positionBlock.getZ())
-                                {
-                                    // Rail can be found in the same bucket as we're already in
-                                    if (bucketInCacheType == type) {
-                                        // Self
-                                        newRailsAtPosition[index++] = bucketInCache;
-                                    } else if (bucketInCacheType == RailType.NONE) {
-                                        // Swap it out
-                                        bucketInCache = bucketInCache.swapOutNoneType(type);
-                                        bucketInCacheType = type;
-                                        newRailsAtPosition[index++] = bucketInCache;
-                                    } else {
-                                        // Append to chain, bucket in cache isn't changed
-                                        newRailsAtPosition[index++] = bucketInCache.findOrAppendToChain(type);
-                                    }
-                                }
-                                else
-                                {
-                                    // Need to look it up in the cache. This bucket won't get replaced.
-                                    OfflineBlock railsOfflineBlock = offlineWorld.getBlockAt(railsBlock.getX(), railsBlock.getY(), railsBlock.getZ());
-                                    newRailsAtPosition[index++] = lookupRailBucket(railsOfflineBlock, railsBlock, type);
+                        List<Block> rails = found.rails;
+                        // During this we might end up deleting 'ourselves' if the rail type of this bucket is NONE,
+                        // and a rail is found with the same block position as ourselves.
+                        RailType bucketInCacheType = bucketInCache.type();
+
+                        // Fill this array with the found buckets
+                        int index = newRailsAtPosition.length;
+                        newRailsAtPosition = Arrays.copyOf(newRailsAtPosition, index + rails.size());
+
+                        for (Block railsBlock : rails) {
+                            if (railsBlock.getX() == positionBlock.getX() &&
+                                railsBlock.getY() == positionBlock.getY() &&
+                                railsBlock.getZ() == positionBlock.getZ())
+                            {
+                                // Rail can be found in the same bucket as we're already in
+                                if (bucketInCacheType == type) {
+                                    // Self
+                                    newRailsAtPosition[index++] = bucketInCache;
+                                } else if (bucketInCacheType == RailType.NONE) {
+                                    // Swap it out
+                                    bucketInCache = bucketInCache.swapOutNoneType(type);
+                                    bucketInCacheType = type;
+                                    newRailsAtPosition[index++] = bucketInCache;
+                                } else {
+                                    // Append to chain, bucket in cache isn't changed
+                                    newRailsAtPosition[index++] = bucketInCache.findOrAppendToChain(type);
                                 }
                             }
+                            else
+                            {
+                                // Need to look it up in the cache. This bucket won't get replaced.
+                                OfflineBlock railsOfflineBlock = offlineWorld.getBlockAt(railsBlock.getX(), railsBlock.getY(), railsBlock.getZ());
+                                newRailsAtPosition[index++] = lookupRailBucket(railsOfflineBlock, railsBlock, type);
+                            }
                         }
                     } catch (Throwable t) {
                         RailType.handleCriticalError(type, t);
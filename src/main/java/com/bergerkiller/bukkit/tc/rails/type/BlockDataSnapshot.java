@@ -0,0 +1,120 @@
+package com.bergerkiller.bukkit.tc.rails.type;
+
+import java.util.Arrays;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import com.bergerkiller.bukkit.common.utils.WorldUtil;
+import com.bergerkiller.bukkit.common.wrappers.BlockData;
+
+/**
+ * Remembers the BlockData of the last few blocks looked up while discovering
+ * rails. When all registered rail types are queried for the same position, they
+ * mostly look at the same handful of blocks. With a snapshot open, those blocks
+ * are only read from the world once.<br>
+ * <br>
+ * A snapshot must only be kept open while no blocks are changed, for example
+ * while querying {@link RailType#findRails(org.bukkit.block.Block)} of all rail
+ * types. Outside of an open snapshot, or on another thread than the one that
+ * opened it, all lookups go straight to the world.
+ */
+public final class BlockDataSnapshot {
+    private static final int CAPACITY = 16; // Must be power of 2
+    private static final BlockDataSnapshot INSTANCE = new BlockDataSnapshot();
+    private Thread owner = null;
+    private int depth = 0;
+    private World world = null;
+    private final int[] keysX = new int[CAPACITY];
+    private final int[] keysY = new int[CAPACITY];
+    private final int[] keysZ = new int[CAPACITY];
+    private final BlockData[] values = new BlockData[CAPACITY];
+    private int nextSlot = 0;
+
+    private BlockDataSnapshot() {
+    }
+
+    /**
+     * Opens a snapshot on the current thread. Every call must be followed by a
+     * call to {@link #close()}, preferably in a finally block. Snapshots can be
+     * nested, in which case the outer-most snapshot is used.
+     */
+    public static void open() {
+        BlockDataSnapshot s = INSTANCE;
+        synchronized (s) {
+            if (s.depth == 0) {
+                s.owner = Thread.currentThread();
+                s.world = null;
+                s.depth = 1;
+            } else if (s.owner == Thread.currentThread()) {
+                s.depth++;
+            }
+        }
+    }
+
+    /**
+     * Closes a snapshot previously opened with {@link #open()}
+     */
+    public static void close() {
+        BlockDataSnapshot s = INSTANCE;
+        synchronized (s) {
+            if (s.owner == Thread.currentThread() && --s.depth == 0) {
+                s.owner = null;
+                s.world = null;
+                Arrays.fill(s.values, null);
+            }
+        }
+    }
+
+    /**
+     * Gets the BlockData of a block. If a snapshot is open on the current thread,
+     * and the block was looked up before, the remembered BlockData is returned.
+     *
+     * @param world World
+     * @param x X-coordinate of the block
+     * @param y Y-coordinate of the block
+     * @param z Z-coordinate of the block
+     * @return BlockData
+     */
+    public static BlockData getBlockData(World world, int x, int y, int z) {
+        BlockDataSnapshot s = INSTANCE;
+        if (s.owner != Thread.currentThread()) {
+            return WorldUtil.getBlockData(world, x, y, z);
+        }
+        return s.get(world, x, y, z);
+    }
+
+    /**
+     * Gets the BlockData of a block. If a snapshot is open on the current thread,
+     * and the block was looked up before, the remembered BlockData is returned.
+     *
+     * @param block Block
+     * @return BlockData
+     */
+    public static BlockData getBlockData(Block block) {
+        return getBlockData(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    private BlockData get(World world, int x, int y, int z) {
+        if (this.world != world) {
+            Arrays.fill(this.values, null);
+            this.world = world;
+        }
+
+        BlockData[] values = this.values;
+        for (int i = 0; i < CAPACITY; i++) {
+            if (values[i] != null && keysX[i] == x && keysY[i] == y && keysZ[i] == z) {
+                return values[i];
+            }
+        }
+
+        BlockData data = WorldUtil.getBlockData(world, x, y, z);
+        int slot = this.nextSlot;
+        this.nextSlot = (slot + 1) & (CAPACITY - 1);
+        keysX[slot] = x;
+        keysY[slot] = y;
+        keysZ[slot] = z;
+        values[slot] = data;
+        return data;
+    }
+}
@@ -3,7 +3,6 @@ package com.bergerkiller.bukkit.tc.rails.type;
 import com.bergerkiller.bukkit.common.internal.CommonCapabilities;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.common.utils.FaceUtil;
-import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.BlockData;
 import com.bergerkiller.bukkit.tc.TrainCarts;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
@@ -140,7 +139,7 @@ public abstract class RailType {
      */
     public static RailType getType(Block railsBlock) {
         if (railsBlock != null) {
-            return getType(railsBlock, WorldUtil.getBlockData(railsBlock));
+            return getType(railsBlock, BlockDataSnapshot.getBlockData(railsBlock));
         }
         return NONE;
     }
@@ -301,7 +300,7 @@ public abstract class RailType {
      * @return True if it is this Rail, False if not
      */
     public boolean isRail(World world, int x, int y, int z) {
-        return isRail(WorldUtil.getBlockData(world, x, y, z));
+        return isRail(BlockDataSnapshot.getBlockData(world, x, y, z));
     }
 
     /**
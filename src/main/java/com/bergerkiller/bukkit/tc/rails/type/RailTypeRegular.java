@@ -5,7 +5,6 @@ import com.bergerkiller.bukkit.common.map.MapColorPalette;
 import com.bergerkiller.bukkit.common.map.MapTexture;
 import com.bergerkiller.bukkit.common.utils.BlockUtil;
 import com.bergerkiller.bukkit.common.utils.FaceUtil;
-import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.BlockData;
 import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.TrainCarts;
@@ -159,7 +158,7 @@ public class RailTypeRegular extends RailTypeHorizontal {
         if (rails.isOnSlope()) {
             // Check blocks above-forward - should be valid solid or another upside-down rails
             Block nextBlock = railsBlock.getRelative(rails.getDirection().getOppositeFace());
-            BlockData nextBlockData = WorldUtil.getBlockData(nextBlock);
+            BlockData nextBlockData = BlockDataSnapshot.getBlockData(nextBlock);
             if (!nextBlockData.isSuffocating(nextBlock)) {
                 RailType railType = RailType.getType(nextBlock, nextBlockData);
                 if (railType == RailType.NONE) {
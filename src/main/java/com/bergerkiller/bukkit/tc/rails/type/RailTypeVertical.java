@@ -3,7 +3,6 @@ package com.bergerkiller.bukkit.tc.rails.type;
 import com.bergerkiller.bukkit.common.utils.BlockUtil;
 import com.bergerkiller.bukkit.common.utils.FaceUtil;
 import com.bergerkiller.bukkit.common.utils.LogicUtil;
-import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.BlockData;
 import com.bergerkiller.bukkit.tc.Util;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
@@ -176,7 +175,7 @@ public class RailTypeVertical extends RailType {
     }
 
     private boolean isUpsideDownRail(Block railsBlock) {
-        MaterialData materialData = WorldUtil.getBlockData(railsBlock).getMaterialData();
+        MaterialData materialData = BlockDataSnapshot.getBlockData(railsBlock).getMaterialData();
         if (materialData instanceof Rails) {
             return RailType.REGULAR.isUpsideDown(railsBlock, (Rails) materialData);
         } else {
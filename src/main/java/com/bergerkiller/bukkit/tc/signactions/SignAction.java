@@ -21,6 +21,7 @@ import com.bergerkiller.bukkit.tc.events.SignBuildEvent;
 import com.bergerkiller.bukkit.tc.events.SignChangeActionEvent;
 import com.bergerkiller.bukkit.tc.pathfinding.PathNode;
 import com.bergerkiller.bukkit.tc.pathfinding.PathPredictEvent;
+import com.bergerkiller.bukkit.tc.pathfinding.PathProvider;
 import com.bergerkiller.bukkit.tc.pathfinding.SignRoutingEvent;
 import com.bergerkiller.bukkit.tc.rails.RailLookup.TrackedSign;
 import com.bergerkiller.bukkit.tc.signactions.util.SignActionLookupMap;
@@ -321,6 +322,11 @@ public abstract class SignAction {
                 }
             }
 
+            // Connections that pass this sign could now stop trains, discover them again
+            if (PathProvider.mayStopTrain(action)) {
+                info.getTrainCarts().getPathProvider().getWorld(info.getWorld()).rerouteConnectionsWithStopFlag(false);
+            }
+
             // Call loaded
             action.loadedChanged(info, true);
         }
@@ -372,6 +378,11 @@ public abstract class SignAction {
                 }
             }
 
+            // Connections that passed this sign might no longer stop trains, discover them again
+            if (PathProvider.mayStopTrain(action)) {
+                info.getTrainCarts().getPathProvider().getWorld(info.getWorld()).rerouteConnectionsWithStopFlag(true);
+            }
+
             // Unloaded
             action.loadedChanged(info, false);
         }
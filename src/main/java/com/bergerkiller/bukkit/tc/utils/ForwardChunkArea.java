@@ -3,23 +3,34 @@ package com.bergerkiller.bukkit.tc.utils;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.bukkit.World;
 import org.bukkit.block.Block;
 
 import com.bergerkiller.bukkit.common.TickTracker;
 import com.bergerkiller.bukkit.common.chunk.ForcedChunk;
+import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.LongHashMap;
+import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.mountiplex.reflection.SafeMethod;
 
 /**
  * Stores the chunks kept loaded to track obstacles up ahead.
  * Is used by the track walking point to keep previously walked paths loaded,
- * reducing the chunk load/unload jitter that it can otherwise cause.
+ * reducing the chunk load/unload jitter that it can otherwise cause.<br>
+ * <br>
+ * Chunks further along the predicted route of the train can be preloaded using
+ * {@link #preload(int, int, int)}. These stay loaded until they expire, and the
+ * number of these chunks still loading at one time is limited per world.
  */
 public class ForwardChunkArea {
+    private static final Map<World, PendingLoadCounter> pendingLoadsByWorld = new WeakHashMap<>();
+    private static int numSyncLoads = 0;
+    private static int numSyncLoadsAvoided = 0;
     private final TickTracker beginTickTracker;
     private World world;
     private final LongHashMap<Entry> entries;
@@ -40,12 +51,15 @@ public class ForwardChunkArea {
             if (lastEntry != null && lastEntry.state != expectedState) {
                 lastEntry = null; // Make sure this is invalidated, we remove this later
             }
+            int currentTick = CommonUtil.getServerTicks();
             for (Iterator<Entry> iter = entriesList.iterator(); iter.hasNext();) {
                 Entry e = iter.next();
-                if (e.state != expectedState) {
+                if (e.state != expectedState && currentTick >= e.expireTick) {
                     iter.remove();
                     entries.remove(e.key);
-                    e.chunk.close();
+                    e.close();
+                } else if (e.pending != null && world.isChunkLoaded(e.cx, e.cz)) {
+                    e.loaded();
                 }
             }
 
@@ -79,7 +93,7 @@ public class ForwardChunkArea {
     public void reset() {
         if (!entriesList.isEmpty()) {
             for (Entry e : entriesList) {
-                e.chunk.close();
+                e.close();
             }
             entries.clear();
             entriesList.clear();
@@ -97,7 +111,7 @@ public class ForwardChunkArea {
         Entry e = lastEntry;
         if (e == null || e.key != key) {
             e = entries.computeIfAbsent(key, k -> {
-                Entry newEntry = new Entry(FORCE_LOADED_FUNC.forceLoaded(world, cx, cz), k, false);
+                Entry newEntry = new Entry(FORCE_LOADED_FUNC.forceLoaded(world, cx, cz), cx, cz, k, null);
                 entriesList.add(newEntry);
                 return newEntry;
             });
@@ -106,16 +120,130 @@ public class ForwardChunkArea {
         e.state = state;
     }
 
+    /**
+     * Preloads a chunk further along the route of the train. The chunk is loaded
+     * asynchronously, and is kept loaded for the number of ticks specified, or for longer
+     * if it is {@link #add(int, int) added} during that time.<br>
+     * <br>
+     * If too many chunks are still being loaded on this world right now, the chunk is
+     * not preloaded and false is returned. The caller should then stop preloading chunks,
+     * and try again later.
+     *
+     * @param cx Chunk X-coordinate
+     * @param cz Chunk Z-coordinate
+     * @param expireTicks Number of ticks to keep the chunk loaded
+     * @return True if the chunk is loaded or preloading, False if the preload budget is exceeded
+     */
+    public boolean preload(int cx, int cz, int expireTicks) {
+        long key = MathUtil.longHashToLong(cx, cz);
+        Entry e = entries.get(key);
+        if (e == null) {
+            PendingLoadCounter pending = null;
+            if (!world.isChunkLoaded(cx, cz)) {
+                pending = pendingLoadsByWorld.computeIfAbsent(world, w -> new PendingLoadCounter());
+                if (pending.count >= TCConfig.keepChunksLoadedPreloadMaxPending) {
+                    return false;
+                }
+                pending.count++;
+            }
+            e = new Entry(FORCE_LOADED_FUNC.forceLoaded(world, cx, cz), cx, cz, key, pending);
+            e.state = !state; // Not added this tick
+            e.preloaded = (pending != null);
+            entries.put(key, e);
+            entriesList.add(e);
+        }
+        e.expireTick = Math.max(e.expireTick, CommonUtil.getServerTicks() + expireTicks);
+        return true;
+    }
+
+    /**
+     * Gets whether a chunk was loaded because it was {@link #preload(int, int, int) preloaded}
+     * by this forward chunk area. Chunks that were already loaded when preloading, or that are
+     * only kept loaded by the obstacle tracking, are not included.
+     *
+     * @param cx Chunk X-coordinate
+     * @param cz Chunk Z-coordinate
+     * @return True if a load of the chunk was requested by preloading
+     */
+    public boolean isPreloaded(int cx, int cz) {
+        Entry e = entries.get(MathUtil.longHashToLong(cx, cz));
+        return e != null && e.preloaded;
+    }
+
+    /**
+     * Tracks that a train had to load a chunk nearby right away, for statistics
+     * logged when {@link TCConfig#logSyncChunkLoads} is enabled.
+     *
+     * @param wasLoaded Whether the chunk was already loaded
+     * @param wasPreloaded Whether a load of the chunk was requested by preloading
+     * @return True if a synchronous chunk load occurred that should be logged
+     */
+    public static boolean trackChunkLoad(boolean wasLoaded, boolean wasPreloaded) {
+        if (!wasLoaded) {
+            ++numSyncLoads;
+            return true;
+        } else if (wasPreloaded) {
+            ++numSyncLoadsAvoided;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of chunks trains had to load synchronously since the server started.
+     * Only tracked when {@link TCConfig#logSyncChunkLoads} is enabled.
+     *
+     * @return number of sync chunk loads
+     */
+    public static int getSyncLoadCount() {
+        return numSyncLoads;
+    }
+
+    /**
+     * Gets the number of chunks trains would have had to load synchronously, but which were
+     * already loaded because they were preloaded. Only tracked when
+     * {@link TCConfig#logSyncChunkLoads} is enabled.
+     *
+     * @return number of sync chunk loads avoided by preloading
+     */
+    public static int getSyncLoadAvoidedCount() {
+        return numSyncLoadsAvoided;
+    }
+
     private static final class Entry {
         public final ForcedChunk chunk;
+        public final int cx, cz;
         public final long key;
         public boolean state;
+        public int expireTick;
+        public PendingLoadCounter pending;
+        public boolean preloaded;
 
-        public Entry(ForcedChunk chunk, long key, boolean state) {
+        public Entry(ForcedChunk chunk, int cx, int cz, long key, PendingLoadCounter pending) {
             this.chunk = chunk;
+            this.cx = cx;
+            this.cz = cz;
             this.key = key;
-            this.state = state;
+            this.state = false;
+            this.expireTick = 0;
+            this.pending = pending;
+            this.preloaded = false;
+        }
+
+        public void loaded() {
+            if (pending != null) {
+                pending.count--;
+                pending = null;
+            }
         }
+
+        public void close() {
+            loaded();
+            chunk.close();
+        }
+    }
+
+    private static final class PendingLoadCounter {
+        public int count = 0;
     }
 
     @FunctionalInterface
@@ -67,6 +67,10 @@ public class TrackWalkingPoint {
      * Counter to track repeated positions, indicating getting stuck
      */
     private int _stuckCtr = 0;
+    /**
+     * Re-used when moving to a position switched by the navigator, to avoid allocations
+     */
+    private final RailPath.Position switchedPosition = new RailPath.Position();
 
     private boolean first = true;
     private boolean isAtEnd = false;
@@ -385,7 +389,8 @@ public class TrackWalkingPoint {
         // If navigating and the navigator altered the path, move to
         // this new position and advance a small amount beyond the rail.
         if (navigator != null && navigator.event.hasSwitchedPosition()) {
-            RailPath.Position switchedPosition = navigator.event.getSwitchedPosition().clone();
+            RailPath.Position switchedPosition = this.switchedPosition;
+            navigator.event.getSwitchedPosition().copyTo(switchedPosition);
             switchedPosition.makeAbsolute(navigator.event.railBlock());
             double distance = position.distance(switchedPosition);
             switchedPosition.copyTo(position);
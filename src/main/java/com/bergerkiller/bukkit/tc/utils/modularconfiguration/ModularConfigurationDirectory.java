@@ -19,7 +19,11 @@ import java.util.stream.Collectors;
  * <br>
  * Read-only files are sorted to the back of the list. The files are
  * then sorted by name. This means entries declared in file "a" override
- * ones declared in file "b".
+ * ones declared in file "b".<br>
+ * <br>
+ * The names of the entries stored in every file are remembered in an index
+ * file inside the directory. Files that did not change since are only loaded
+ * once the configuration of one of their entries is accessed.
  *
  * @param <T> Type of object stored the configuration is for
  */
@@ -29,6 +33,7 @@ public class ModularConfigurationDirectory<T> implements ModularConfigurationBlo
     private List<String> names;
     private final Map<String, ModularConfigurationFile<T>> filesByName;
     private final File directory;
+    private final ModularConfigurationIndex index;
 
     ModularConfigurationDirectory(ModularConfiguration<T> main, File directory) {
         this.main = main;
@@ -36,6 +41,7 @@ public class ModularConfigurationDirectory<T> implements ModularConfigurationBlo
         this.names = Collections.emptyList();
         this.filesByName = new HashMap<>();
         this.directory = directory;
+        this.index = new ModularConfigurationIndex(directory, main.logger);
 
         this.loadFiles();
     }
@@ -85,6 +91,9 @@ public class ModularConfigurationDirectory<T> implements ModularConfigurationBlo
             return;
         }
 
+        // Load the index of entry names stored in the files
+        index.load();
+
         // Collect all files to be loaded and turn them into modules
         // Ignore files that are completely empty, but don't remove those
         files = Arrays.stream(directoryFiles)
@@ -98,10 +107,12 @@ public class ModularConfigurationDirectory<T> implements ModularConfigurationBlo
 
                     return ext.endsWith(".yml") || ext.endsWith(".yaml");
                 })
-                .map(file -> new ModularConfigurationFile<T>(main, file))
+                .map(file -> new ModularConfigurationFile<T>(main, file, index))
                 .filter(m -> !m.isEmpty())
                 .sorted()
                 .collect(Collectors.toList());
+        index.retain(files);
+        index.saveIfChanged();
         filesByName.clear();
         files.forEach(f -> filesByName.put(f.name, f));
         regenNames();
@@ -137,7 +148,7 @@ public class ModularConfigurationDirectory<T> implements ModularConfigurationBlo
             } catch (IOException ex) {
                 main.logger.log(Level.WARNING, "Failed to write to " + file.getAbsolutePath(), ex);
             }
-            fileModule = new ModularConfigurationFile<T>(main, fixedName, file, false);
+            fileModule = new ModularConfigurationFile<T>(main, fixedName, file, false, index, null);
 
             // Add the file at the right spot into the sorted list of files
             {
@@ -199,10 +210,12 @@ public class ModularConfigurationDirectory<T> implements ModularConfigurationBlo
     @Override
     public void saveChanges() {
         files.forEach(ModularConfigurationModule::saveChanges);
+        index.saveIfChanged();
     }
 
     @Override
     public void save() {
         files.forEach(ModularConfigurationModule::save);
+        index.saveIfChanged();
     }
 }
@@ -117,9 +117,30 @@ public class ModularConfigurationEntry<T> implements Comparable<ModularConfigura
      * @return configuration
      */
     public ConfigurationNode getConfig() {
+        loadModule();
         return config;
     }
 
+    /**
+     * Gets the configuration of this entry without making sure the module it is in
+     * has loaded it. Used while the module is loading the entry configurations.
+     *
+     * @return configuration, might not be loaded yet
+     */
+    ConfigurationNode getConfigWithoutLoading() {
+        return config;
+    }
+
+    /**
+     * Makes sure the module this entry is stored in has its configuration loaded
+     */
+    private void loadModule() {
+        ModularConfigurationModule<T> module = this.module;
+        if (module != null) {
+            module.ensureLoaded();
+        }
+    }
+
     /**
      * Gets the configuration of this entry. Throws an error if the
      * entry is removed, and the configuration cannot be written to. The
@@ -134,6 +155,7 @@ public class ModularConfigurationEntry<T> implements Comparable<ModularConfigura
         if (isRemoved()) {
             throw new EntryRemovedException();
         }
+        loadModule();
         return config;
     }
 
@@ -155,6 +177,7 @@ public class ModularConfigurationEntry<T> implements Comparable<ModularConfigura
             throw new ReadOnlyModuleException();
         }
 
+        loadModule();
         this.config.setToExcept(config, Collections.singleton(BasicModularConfiguration.KEY_SAVED_NAME));
         this.main.postProcessEntryConfiguration(this);
     }
@@ -184,6 +207,7 @@ public class ModularConfigurationEntry<T> implements Comparable<ModularConfigura
             throw new ReadOnlyModuleException();
         }
 
+        loadModule();
         if (isRemoved()) {
             // Add this entry to this module
             module.store(this);
@@ -299,6 +323,9 @@ public class ModularConfigurationEntry<T> implements Comparable<ModularConfigura
             throw new ReadOnlyModuleException();
         }
 
+        // Configuration must be loaded before it can be moved
+        loadModule();
+
         // If the old module is writable, remove it from there
         // If not, store it as a shadow module where the entry will
         // be moved to when 'deleted'.
@@ -341,6 +368,8 @@ public class ModularConfigurationEntry<T> implements Comparable<ModularConfigura
             throw new ReadOnlyModuleException();
         }
 
+        this.loadModule();
+        targetEntry.loadModule();
         targetEntry.config.setToExcept(this.config, Collections.singleton(BasicModularConfiguration.KEY_SAVED_NAME));
         this.main.postProcessEntryConfiguration(targetEntry);
     }
@@ -366,9 +395,14 @@ public class ModularConfigurationEntry<T> implements Comparable<ModularConfigura
     void detachAsShadowCopy() {
         final ModularConfigurationModule<T> module = this.module;
         if (module != null) {
-            boolean wasChanged = module.configChanged;
-            module.store(new ModularConfigurationEntry<>(main, name, this.config.clone(), this.module));
-            module.configChanged = wasChanged;
+            if (module.isLoaded()) {
+                boolean wasChanged = module.configChanged;
+                module.store(new ModularConfigurationEntry<>(main, name, this.config.clone(), this.module));
+                module.configChanged = wasChanged;
+            } else {
+                // Configuration of the module isn't loaded yet, so there is nothing to copy
+                module.storeUnloaded(new ModularConfigurationEntry<>(main, name, new ConfigurationNode(), this.module));
+            }
 
             this.module = null;
         }
@@ -387,6 +421,7 @@ public class ModularConfigurationEntry<T> implements Comparable<ModularConfigura
             return;
         }
 
+        module.ensureLoaded();
         boolean wasRemoved = isRemoved();
         if (!wasRemoved) {
             this.shadowModules.add(this.module);
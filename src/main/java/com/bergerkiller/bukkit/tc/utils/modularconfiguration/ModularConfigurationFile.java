@@ -3,29 +3,92 @@ package com.bergerkiller.bukkit.tc.utils.modularconfiguration;
 import com.bergerkiller.bukkit.common.config.FileConfiguration;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 /**
  * A {@link ModularConfigurationModule} backed by a physical File on disk. Changes made
  * to this module are saved to that file. A reload will load the contents of the
- * file.
+ * file.<br>
+ * <br>
+ * If the module is part of a {@link ModularConfigurationDirectory}, then the
+ * directory index can be used to create the entries without loading the file. The
+ * file is then only loaded once the configuration of an entry is accessed.
  *
  * @param <T> Type of object stored the configuration is for
  */
 public class ModularConfigurationFile<T> extends ModularConfigurationModule<T> {
+    private final File file;
+    private final ModularConfigurationIndex index;
+    private volatile boolean loaded;
 
     ModularConfigurationFile(ModularConfiguration<T> main, File file) {
         this(main, decodeModuleNameFromFile(file), file, !file.canWrite());
     }
 
     ModularConfigurationFile(ModularConfiguration<T> main, String name, File file, boolean readOnly) {
-        super(main, name, new FileConfiguration(file), readOnly);
+        this(main, name, file, readOnly, null, null);
+    }
+
+    ModularConfigurationFile(ModularConfiguration<T> main, File file, ModularConfigurationIndex index) {
+        this(main, decodeModuleNameFromFile(file), file, !file.canWrite(), index, index.getEntryNames(file));
+    }
+
+    ModularConfigurationFile(ModularConfiguration<T> main, String name, File file, boolean readOnly,
+                             ModularConfigurationIndex index, List<String> indexedNames
+    ) {
+        super(main, name, new FileConfiguration(file), readOnly, indexedNames);
+        this.file = file;
+        this.index = index;
+        this.loaded = (indexedNames == null);
+        updateIndex();
+    }
+
+    /**
+     * Gets the File on disk this module loads and saves the configuration
+     *
+     * @return file
+     */
+    public File getFile() {
+        return file;
     }
 
     @Override
     protected void loadConfig() {
-        ((FileConfiguration) config).load();
-        super.loadConfig();
+        synchronized (this) {
+            ((FileConfiguration) config).load();
+            super.loadConfig();
+            loaded = true;
+        }
+        updateIndex();
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * <br>
+     * Entry configurations can be accessed from other threads (for example, while
+     * tab-completing), so loading is synchronized. Other threads only see this module
+     * as loaded once all entry configurations are filled in.
+     */
+    @Override
+    void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    List<ModularConfigurationEntry<T>> indexedEntries = new ArrayList<>(getAll());
+                    ((FileConfiguration) config).load();
+                    loadIndexedEntries(indexedEntries);
+                    loaded = true;
+                    updateIndex();
+                }
+            }
+        }
+    }
+
+    @Override
+    boolean isLoaded() {
+        return loaded;
     }
 
     @Override
@@ -46,6 +109,7 @@ public class ModularConfigurationFile<T> extends ModularConfigurationModule<T> {
         if (configChanged) {
             if (!isReadOnly()) {
                 ((FileConfiguration) config).save();
+                updateIndex();
             }
             configChanged = false;
         }
@@ -53,12 +117,21 @@ public class ModularConfigurationFile<T> extends ModularConfigurationModule<T> {
 
     @Override
     public void save() {
-        if (!isReadOnly()) {
+        // If never loaded, there are no changes to save, and saving would wipe the file
+        if (!isReadOnly() && loaded) {
             ((FileConfiguration) config).save();
+            updateIndex();
         }
         configChanged = false;
     }
 
+    private void updateIndex() {
+        // Note: file is null while the base constructor is loading the configuration
+        if (index != null && file != null && loaded) {
+            index.update(file, getNames());
+        }
+    }
+
     static String decodeModuleNameFromFile(File file) {
         String name = file.getName();
         if (name.indexOf(".") > 0) {
@@ -0,0 +1,223 @@
+package com.bergerkiller.bukkit.tc.utils.modularconfiguration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Sidecar cache file stored inside a {@link ModularConfigurationDirectory}. It
+ * remembers the names of the entries declared inside every module file, together
+ * with the size, modification time and a content hash of that file. When a
+ * module file is unchanged since the index was written, the module can be created
+ * from the entry names alone, and the YAML is only parsed once an entry's
+ * configuration is actually accessed. Listing entry names (for tab-completion)
+ * is then served without parsing anything.<br>
+ * <br>
+ * Module files load lazily on whatever thread first accesses them, so all
+ * methods are synchronized on the index.<br>
+ * <br>
+ * Internal implementation.
+ */
+class ModularConfigurationIndex {
+    /** Name of the index file stored inside the module directory */
+    public static final String FILE_NAME = ".module_index.dat";
+    private static final int VERSION = 1;
+    private final File indexFile;
+    private final Logger logger;
+    private final Map<String, ModuleInfo> modules = new HashMap<>();
+    private boolean changed = false;
+
+    ModularConfigurationIndex(File directory, Logger logger) {
+        this.indexFile = new File(directory, FILE_NAME);
+        this.logger = logger;
+    }
+
+    /**
+     * Reads the index file from disk, discarding all previously loaded information.
+     * If the file does not exist or is corrupt, the index is left empty.
+     */
+    public synchronized void load() {
+        modules.clear();
+        changed = false;
+        if (!indexFile.exists()) {
+            return;
+        }
+
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (stream.readInt() != VERSION) {
+                changed = true; // Rewrite in the new format
+                return;
+            }
+            int moduleCount = stream.readInt();
+            for (int i = 0; i < moduleCount; i++) {
+                String fileName = stream.readUTF();
+                long length = stream.readLong();
+                long lastModified = stream.readLong();
+                long hash = stream.readLong();
+                int nameCount = stream.readInt();
+                List<String> names = new ArrayList<>(nameCount);
+                for (int n = 0; n < nameCount; n++) {
+                    names.add(stream.readUTF());
+                }
+                modules.put(fileName, new ModuleInfo(length, lastModified, hash, Collections.unmodifiableList(names)));
+            }
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Failed to read module index " + indexFile.getAbsolutePath() + ", modules will be fully loaded", ex);
+            modules.clear();
+            changed = true;
+        }
+    }
+
+    /**
+     * Writes the index to disk, if it was changed since it was last loaded or saved
+     */
+    public synchronized void saveIfChanged() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            stream.writeInt(VERSION);
+            stream.writeInt(modules.size());
+            for (Map.Entry<String, ModuleInfo> e : modules.entrySet()) {
+                ModuleInfo info = e.getValue();
+                stream.writeUTF(e.getKey());
+                stream.writeLong(info.length);
+                stream.writeLong(info.lastModified);
+                stream.writeLong(info.hash);
+                stream.writeInt(info.names.size());
+                for (String name : info.names) {
+                    stream.writeUTF(name);
+                }
+            }
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Failed to write module index " + indexFile.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Looks up the entry names stored inside a module file. If the file was changed
+     * since the index was last updated, or it isn't indexed at all, returns <i>null</i>.
+     * Files with only a changed modification time are verified by their content hash.
+     *
+     * @param file Module file
+     * @return Sorted List of entry names declared inside the file, or <i>null</i> if
+     *         the file must be fully loaded
+     */
+    public synchronized List<String> getEntryNames(File file) {
+        ModuleInfo info = modules.get(file.getName());
+        if (info == null || info.length != file.length()) {
+            return null;
+        }
+
+        long lastModified = file.lastModified();
+        if (info.lastModified != lastModified) {
+            // Touched (for example, copied or restored from a backup) but maybe not changed
+            Long hash = computeHash(file);
+            if (hash == null || hash.longValue() != info.hash) {
+                return null;
+            }
+            modules.put(file.getName(), new ModuleInfo(info.length, lastModified, info.hash, info.names));
+            changed = true;
+        }
+
+        return info.names;
+    }
+
+    /**
+     * Updates the index information of a module file after it was (fully) loaded or saved
+     *
+     * @param file Module file
+     * @param names Names of the entries currently stored inside the file
+     */
+    public synchronized void update(File file, List<String> names) {
+        ModuleInfo info = modules.get(file.getName());
+        long length = file.length();
+        long lastModified = file.lastModified();
+        if (info != null && info.length == length && info.lastModified == lastModified && info.names.equals(names)) {
+            return; // Unchanged
+        }
+
+        Long hash = computeHash(file);
+        if (hash == null) {
+            remove(file);
+        } else {
+            modules.put(file.getName(), new ModuleInfo(length, lastModified, hash.longValue(),
+                    Collections.unmodifiableList(new ArrayList<>(names))));
+            changed = true;
+        }
+    }
+
+    /**
+     * Removes the index information of a module file, so that it is fully
+     * loaded the next time.
+     *
+     * @param file Module file
+     */
+    public synchronized void remove(File file) {
+        if (modules.remove(file.getName()) != null) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Removes the index information of all files not contained in the collection
+     *
+     * @param files Module files that still exist
+     */
+    public synchronized void retain(Collection<? extends ModularConfigurationFile<?>> files) {
+        Set<String> fileNames = new HashSet<>(files.size());
+        for (ModularConfigurationFile<?> file : files) {
+            fileNames.add(file.getFile().getName());
+        }
+        if (modules.keySet().retainAll(fileNames)) {
+            changed = true;
+        }
+    }
+
+    private Long computeHash(File file) {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream stream = new FileInputStream(file)) {
+            int len;
+            while ((len = stream.read(buffer)) != -1) {
+                crc.update(buffer, 0, len);
+            }
+        } catch (IOException ex) {
+            return null;
+        }
+        return crc.getValue();
+    }
+
+    private static final class ModuleInfo {
+        public final long length;
+        public final long lastModified;
+        public final long hash;
+        public final List<String> names;
+
+        public ModuleInfo(long length, long lastModified, long hash, List<String> names) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.names = names;
+        }
+    }
+}
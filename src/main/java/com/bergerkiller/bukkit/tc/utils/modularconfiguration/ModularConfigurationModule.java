@@ -25,6 +25,10 @@ public class ModularConfigurationModule<T> implements ModularConfigurationBlock<
     boolean configChanged;
 
     ModularConfigurationModule(ModularConfiguration<T> main, String name, ConfigurationNode config, boolean readOnly) {
+        this(main, name, config, readOnly, null);
+    }
+
+    ModularConfigurationModule(ModularConfiguration<T> main, String name, ConfigurationNode config, boolean readOnly, List<String> indexedNames) {
         this.main = main;
         this.entries = new ModularConfigurationEntryMap<>();
         this.name = name;
@@ -35,7 +39,77 @@ public class ModularConfigurationModule<T> implements ModularConfigurationBlock<
         if (!readOnly) {
             this.config.addChangeListener(p -> configChanged = true);
         }
-        loadConfig();
+        if (indexedNames == null) {
+            loadConfig();
+        } else {
+            // Entries are created without configuration. Configuration is loaded in later
+            // on when the configuration of one of the entries is first accessed.
+            for (String entryName : indexedNames) {
+                this.entries.set(entryName, new ModularConfigurationEntry<T>(main, entryName, new ConfigurationNode(), this));
+            }
+        }
+    }
+
+    /**
+     * Makes sure the configuration of all entries of this module is loaded. Modules
+     * created from an index only load the configuration once it is first needed.
+     * By default, does nothing.
+     */
+    void ensureLoaded() {
+    }
+
+    /**
+     * Gets whether the configuration of all entries of this module is loaded.
+     * See {@link #ensureLoaded()}
+     *
+     * @return True if loaded
+     */
+    boolean isLoaded() {
+        return true;
+    }
+
+    /**
+     * Stores an entry inside this module while the module configuration isn't loaded yet.
+     * The entry will have its configuration loaded together with all other entries.
+     *
+     * @param entry ModularConfigurationEntry to store
+     */
+    void storeUnloaded(ModularConfigurationEntry<T> entry) {
+        entry.module = this;
+        entries.set(entry.getName(), entry);
+    }
+
+    /**
+     * Loads the configuration of entries that were previously created without one,
+     * from the now-loaded configuration of this module. The entry configuration is
+     * then bound to this module, so that changes are saved. Entries that are no longer
+     * stored in the configuration are removed from this module, as if the module was
+     * reloaded.
+     *
+     * @param indexedEntries Entries created from the index
+     */
+    void loadIndexedEntries(List<ModularConfigurationEntry<T>> indexedEntries) {
+        configChanged = false;
+        main.preProcessModuleConfiguration(config);
+        saveChanges(); // Save changes introduced above right away
+
+        for (ModularConfigurationEntry<T> entry : indexedEntries) {
+            if (!config.isNode(entry.getName())) {
+                main.logger.warning("Entry '" + entry.getName() + "' is no longer stored in module '" + name +
+                        "', the module was changed without reloading");
+                entries.remove(entry.getName());
+                entry.onModuleRemoved(this);
+                continue;
+            }
+
+            entry.getConfigWithoutLoading().setToExcept(config.getNode(entry.getName()), Collections.emptySet());
+            entry.module = this;
+            entries.set(entry.getName(), entry);
+            config.set(entry.getName(), entry.getConfigWithoutLoading());
+        }
+
+        // Make sure this is false after loading
+        configChanged = false;
     }
 
     /**
@@ -65,6 +139,7 @@ public class ModularConfigurationModule<T> implements ModularConfigurationBlock<
      * @param name Name of the entry to remove
      */
     void removeInModule(String name) {
+        ensureLoaded();
         entries.remove(name);
         config.remove(name);
     }
@@ -75,6 +150,7 @@ public class ModularConfigurationModule<T> implements ModularConfigurationBlock<
      * @param entry ModularConfigurationEntry to store
      */
     void store(ModularConfigurationEntry<T> entry) {
+        ensureLoaded();
         entry.module = this;
         entries.set(entry.getName(), entry);
         config.set(entry.getName(), entry.getConfig());
@@ -2,9 +2,13 @@ package com.bergerkiller.bukkit.tc;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.bukkit.util.Vector;
 import org.junit.Test;
 
+import com.bergerkiller.bukkit.tc.attachments.animation.Animation;
 import com.bergerkiller.bukkit.tc.attachments.animation.AnimationNode;
 
 public class AnimationNodeParsingTest {
@@ -46,4 +50,62 @@ public class AnimationNodeParsingTest {
         node = node.setSceneMarker("hello, world\ttabs");
         assertEquals("hello,_world_tabs", node.getSceneMarker());
     }
+
+    @Test
+    public void testSceneFindPosition() {
+        // Includes nodes with zero duration, which have special behavior when played in reverse
+        double[] durations = new double[] { 0.5, 0.0, 1.0, 0.25, 0.0, 0.75, 0.1 };
+        AnimationNode[] nodes = new AnimationNode[durations.length];
+        for (int i = 0; i < durations.length; i++) {
+            nodes[i] = new AnimationNode(new Vector(i, 0.0, 0.0), new Vector(), true, durations[i]);
+        }
+
+        // Entire animation, a range of nodes, and an inside-out scene
+        assertSceneFindPosition(nodes, 0, nodes.length - 1);
+        assertSceneFindPosition(nodes, 1, 4);
+        assertSceneFindPosition(nodes, 2, 5);
+        assertSceneFindPosition(nodes, 4, 1);
+        assertSceneFindPosition(nodes, 5, 0);
+    }
+
+    private static void assertSceneFindPosition(AnimationNode[] nodes, int nodeBegin, int nodeEnd) {
+        for (boolean looped : new boolean[] { false, true }) {
+            Animation.Scene scene = new Animation.Scene(nodeBegin, nodeEnd, 0.0);
+
+            // Check the boundaries of every play position of the scene, and the middle
+            List<Double> times = new ArrayList<>();
+            times.add(-0.1);
+            for (Animation.PlayPosition position : scene.iteratePlayPositions(nodes, looped)) {
+                double t = position.elapsedTime();
+                double duration = position.node0().getDuration();
+                times.add(t);
+                times.add(t - 1e-9);
+                times.add(t + 1e-9);
+                times.add(t + 0.5 * duration);
+                times.add(t + duration);
+                times.add(t + duration + 1.0);
+            }
+
+            for (boolean reversed : new boolean[] { false, true }) {
+                for (double time : times) {
+                    Animation.PlayPosition expected = findPositionLinear(scene, nodes, looped, time, reversed);
+                    Animation.PlayPosition actual = scene.findPosition(nodes, looped, time, reversed);
+                    assertEquals("Scene " + scene + " looped=" + looped + " reversed=" + reversed + " t=" + time,
+                            String.valueOf(expected), String.valueOf(actual));
+                }
+            }
+        }
+    }
+
+    private static Animation.PlayPosition findPositionLinear(Animation.Scene scene, AnimationNode[] nodes,
+                                                             boolean looped, double elapsedTime, boolean playReversed
+    ) {
+        for (Animation.PlayPosition position : scene.iteratePlayPositions(nodes, looped)) {
+            Animation.PlayPosition result = position.findPosition(elapsedTime, playReversed);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
 }
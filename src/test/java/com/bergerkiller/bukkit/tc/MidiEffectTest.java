@@ -1,10 +1,15 @@
 package com.bergerkiller.bukkit.tc;
 
 import com.bergerkiller.bukkit.tc.attachments.control.effect.EffectLoop;
+import com.bergerkiller.bukkit.tc.attachments.control.effect.midi.MidiChart;
 import com.bergerkiller.bukkit.tc.attachments.control.effect.midi.MidiChartParameters;
+import com.bergerkiller.bukkit.tc.attachments.control.effect.midi.MidiNote;
 import com.bergerkiller.bukkit.tc.attachments.control.effect.midi.MidiTimeSignature;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -70,4 +75,108 @@ public class MidiEffectTest {
         assertEquals(0.1, p.getTimestamp(1), 1e-8);
         assertEquals(20.0, p.getTimestamp(200), 1e-8);
     }
+
+    @Test
+    public void testNotesInRangeSequential() {
+        MidiChart chart = createRangeTestChart();
+        long step = chart.getParameters().getTimestampNanos(1);
+        for (long t = -step; t < 12 * step; t += step / 3) {
+            assertNotesInRange(chart, t, t + step / 3);
+        }
+    }
+
+    @Test
+    public void testNotesInRangeBackwards() {
+        MidiChart chart = createRangeTestChart();
+        long step = chart.getParameters().getTimestampNanos(1);
+        for (long t = 12 * step; t >= -step; t -= step / 2) {
+            assertNotesInRange(chart, t, t + step / 2);
+        }
+    }
+
+    @Test
+    public void testNotesInRangeJumps() {
+        MidiChart chart = createRangeTestChart();
+        long step = chart.getParameters().getTimestampNanos(1);
+        assertNotesInRange(chart, 0, step);
+        assertNotesInRange(chart, 9 * step, 11 * step);
+        assertNotesInRange(chart, step, 4 * step);
+        assertNotesInRange(chart, 4 * step, 5 * step);
+        assertNotesInRange(chart, 0, 20 * step);
+        assertNotesInRange(chart, 2 * step, 3 * step);
+        assertNotesInRange(chart, 10 * step, 10 * step + 1);
+        assertNotesInRange(chart, -5 * step, 0);
+        assertNotesInRange(chart, -5 * step, 1);
+    }
+
+    @Test
+    public void testNotesInRangeEmpty() {
+        MidiChart chart = createRangeTestChart();
+        long step = chart.getParameters().getTimestampNanos(1);
+
+        // Ranges of zero length never play notes, also not at the exact time of a note
+        for (long t = -step; t <= 11 * step; t += step / 2) {
+            assertNotesInRange(chart, t, t);
+        }
+
+        // Chart without notes
+        MidiChart empty = new MidiChart(chart.getParameters());
+        assertNotesInRange(empty, -step, step);
+        assertNotesInRange(empty, 0, 0);
+        assertNotesInRange(empty, step, 2 * step);
+    }
+
+    @Test
+    public void testNotesInRangeEdges() {
+        MidiChart chart = createRangeTestChart();
+        long step = chart.getParameters().getTimestampNanos(1);
+
+        // Start of the range is inclusive, end is exclusive
+        for (int i = 0; i <= 11; i++) {
+            assertNotesInRange(chart, i * step, i * step + 1);
+            assertNotesInRange(chart, i * step - 1, i * step);
+            assertNotesInRange(chart, i * step - 1, i * step + 1);
+            assertNotesInRange(chart, (i - 1) * step, i * step);
+            assertNotesInRange(chart, i * step, (i + 1) * step);
+        }
+
+        // Before the first and beyond the last note
+        assertNotesInRange(chart, Long.MIN_VALUE, 0);
+        assertNotesInRange(chart, 10 * step + 1, Long.MAX_VALUE);
+        assertNotesInRange(chart, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private static MidiChart createRangeTestChart() {
+        MidiChart chart = new MidiChart(MidiChartParameters.DEFAULT);
+        chart.addNoteOnBar(0, 0, 1.0);
+        chart.addNoteOnBar(1, 0, 1.0);
+        chart.addNoteOnBar(1, 4, 1.0);
+        chart.addNoteOnBar(4, -2, 1.0);
+        chart.addNoteOnBar(4, 0, 1.0);
+        chart.addNoteOnBar(4, 7, 1.0);
+        chart.addNoteOnBar(10, 0, 1.0);
+        return chart;
+    }
+
+    /**
+     * Checks that {@link MidiChart#forNotesInRange(long, long, java.util.function.Consumer)} plays
+     * the same notes as a linear lookup of all notes would
+     */
+    private static void assertNotesInRange(MidiChart chart, long prevNanos, long currNanos) {
+        List<MidiNote> expected = new ArrayList<>();
+        boolean expectedMore = false;
+        for (MidiNote note : chart.getNotes()) {
+            long nanos = chart.getParameters().getTimestampNanos(note.timeStepIndex());
+            if (nanos >= prevNanos && nanos < currNanos) {
+                expected.add(note);
+            } else if (nanos >= currNanos) {
+                expectedMore = true;
+            }
+        }
+
+        List<MidiNote> actual = new ArrayList<>();
+        boolean actualMore = chart.forNotesInRange(prevNanos, currNanos, actual::add);
+        assertEquals("Notes in range [" + prevNanos + ", " + currNanos + ")", expected, actual);
+        assertEquals("More notes after range [" + prevNanos + ", " + currNanos + ")", expectedMore, actualMore);
+    }
 }
@@ -0,0 +1,95 @@
+package com.bergerkiller.bukkit.tc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.bergerkiller.bukkit.tc.utils.modularconfiguration.ModularConfiguration;
+import com.bergerkiller.bukkit.tc.utils.modularconfiguration.ModularConfigurationEntry;
+import com.bergerkiller.bukkit.tc.utils.modularconfiguration.ModularConfigurationModule;
+
+/**
+ * Tests the module directory index, which is used to list the entries of
+ * module files without loading them, and the lazy loading of the entry
+ * configurations that follows.
+ */
+public class ModularConfigurationIndexTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLazyLoading() throws IOException {
+        File modules = folder.newFolder("modules");
+        writeModule(modules, "first", "one", "two");
+
+        // First load fully loads the file and writes the index
+        assertEquals(Arrays.asList("one", "two"), new TestConfiguration(modules).getNames());
+
+        // Second load uses the index, only loading once a configuration is accessed
+        TestConfiguration config = new TestConfiguration(modules);
+        assertEquals(Arrays.asList("one", "two"), config.getNames());
+        assertEquals("value_two", config.get("two").getConfig().get("value", ""));
+        assertEquals("value_one", config.get("one").getConfig().get("value", ""));
+    }
+
+    @Test
+    public void testIndexedEntryMissing() throws IOException {
+        File modules = folder.newFolder("modules");
+        writeModule(modules, "first", "one", "two");
+        new TestConfiguration(modules);
+
+        // Change the file after it was indexed, but before the configuration is loaded
+        TestConfiguration config = new TestConfiguration(modules);
+        ModularConfigurationEntry<String> removed = config.get("two");
+        assertFalse(removed.isRemoved());
+        writeModule(modules, "first", "one");
+
+        // Entry that is still there is loaded, the entry that is gone must be removed,
+        // and must not be saved again as an empty configuration
+        assertEquals("value_one", config.get("one").getConfig().get("value", ""));
+        assertTrue(removed.isRemoved());
+        assertTrue(removed.getConfig().isEmpty());
+        assertEquals(Arrays.asList("one"), config.getNames());
+
+        config.saveChanges();
+        assertEquals(Arrays.asList("one"), new TestConfiguration(modules).getNames());
+    }
+
+    private static void writeModule(File directory, String moduleName, String... entryNames) throws IOException {
+        StringBuilder str = new StringBuilder();
+        for (String entryName : entryNames) {
+            str.append(entryName).append(":\n");
+            str.append("  value: value_").append(entryName).append('\n');
+        }
+        Files.write(new File(directory, moduleName + ".yml").toPath(), str.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class TestConfiguration extends ModularConfiguration<String> {
+
+        public TestConfiguration(File moduleDirectory) {
+            super(Logger.getLogger(ModularConfigurationIndexTest.class.getName()));
+            addDirectoryModule(moduleDirectory);
+        }
+
+        @Override
+        protected String decodeConfig(ModularConfigurationEntry<String> entry) {
+            return entry.getConfig().get("value", "");
+        }
+
+        @Override
+        public ModularConfigurationModule<String> getDefaultModule() {
+            return getFiles().get(0);
+        }
+    }
+}
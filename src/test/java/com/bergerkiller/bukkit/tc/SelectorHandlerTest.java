@@ -6,17 +6,25 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.bukkit.command.CommandSender;
+import org.bukkit.util.Vector;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.bergerkiller.bukkit.common.config.ConfigurationNode;
 import com.bergerkiller.bukkit.tc.commands.selector.SelectorCondition;
 import com.bergerkiller.bukkit.tc.commands.selector.SelectorException;
 import com.bergerkiller.bukkit.tc.commands.selector.SelectorHandler;
 import com.bergerkiller.bukkit.tc.commands.selector.SelectorHandlerConditionOption;
 import com.bergerkiller.bukkit.tc.commands.selector.SelectorHandlerRegistry;
+import com.bergerkiller.bukkit.tc.commands.selector.TCSelectorHandlerRegistry;
+import com.bergerkiller.bukkit.tc.properties.TrainProperties;
 
 /**
  * Tests the Selector command expansion logic
@@ -519,5 +527,91 @@ public class SelectorHandlerTest {
             fail("No exception was thrown");
         } catch (SelectorException ex) {}
     }
-}
 
+    @Test
+    public void testTrainConditionsMixed() throws SelectorException {
+        // Trains with a position and number of passengers, with the location filter
+        // reading the x-coordinate condition
+        final Map<TrainProperties, Vector> positions = new IdentityHashMap<>();
+        final Map<TrainProperties, Integer> passengers = new IdentityHashMap<>();
+        final int[] numExpensiveChecks = new int[1];
+        TCSelectorHandlerRegistry trainRegistry = new TCSelectorHandlerRegistry(null) {
+            @Override
+            protected Predicate<TrainProperties> readLocationFilter(CommandSender sender, List<SelectorCondition> conditions) throws SelectorException {
+                SelectorCondition x = null;
+                for (int i = conditions.size() - 1; i >= 0; i--) {
+                    if (conditions.get(i).getKey().equals("x")) {
+                        x = conditions.remove(i);
+                    }
+                }
+                if (x == null) {
+                    return null;
+                }
+                final SelectorCondition xCondition = x;
+                return properties -> xCondition.matchesNumber(positions.get(properties).getX());
+            }
+        };
+        trainRegistry.registerCondition("name", (sender, properties, condition) -> {
+            return condition.matchesText(properties.getTrainName());
+        });
+        trainRegistry.registerCondition("passengers", (sender, properties, condition) -> {
+            numExpensiveChecks[0]++;
+            return condition.matchesNumber(passengers.get(properties));
+        }, true);
+
+        List<TrainProperties> trains = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            TrainProperties properties = new TrainProperties(null, ((i % 2) == 0 ? "even" : "odd") + i, new ConfigurationNode()) {
+                private static final long serialVersionUID = 1L;
+            };
+            trains.add(properties);
+            positions.put(properties, new Vector(10.0 * i, 64.0, 0.0));
+            passengers.put(properties, i % 3);
+        }
+
+        // Conditions are specified in every order, which must not change the trains that match
+        for (String conditions : new String[] {
+                "passengers=1,x=20..80,name=even*",
+                "name=even*,passengers=1,x=20..80",
+                "x=20..80,name=even*,passengers=1"
+        }) {
+            assertTrainsMatched(trainRegistry, trains, conditions,
+                    p -> p.getTrainName().startsWith("even")
+                            && positions.get(p).getX() >= 20.0 && positions.get(p).getX() <= 80.0
+                            && passengers.get(p) == 1);
+        }
+        for (String conditions : new String[] {
+                "passengers=0..1,name=odd*",
+                "name=odd*,passengers=0..1"
+        }) {
+            assertTrainsMatched(trainRegistry, trains, conditions,
+                    p -> p.getTrainName().startsWith("odd") && passengers.get(p) <= 1);
+        }
+        for (String conditions : new String[] {
+                "passengers=2,x=50..",
+                "x=50..,passengers=2"
+        }) {
+            assertTrainsMatched(trainRegistry, trains, conditions,
+                    p -> positions.get(p).getX() >= 50.0 && passengers.get(p) == 2);
+        }
+
+        // Expensive conditions are only checked for the trains that match the others
+        numExpensiveChecks[0] = 0;
+        trainRegistry.matchTrains(null, trains, SelectorCondition.parseAll("passengers=0..2,x=20..80,name=even*"));
+        assertEquals(4, numExpensiveChecks[0]);
+    }
+
+    private static void assertTrainsMatched(TCSelectorHandlerRegistry registry, List<TrainProperties> trains,
+                                            String conditions, Predicate<TrainProperties> expected
+    ) throws SelectorException {
+        List<String> expectedNames = trains.stream()
+                .filter(expected)
+                .map(TrainProperties::getTrainName)
+                .collect(Collectors.toList());
+        List<String> actualNames = registry.matchTrains(null, trains, SelectorCondition.parseAll(conditions)).stream()
+                .map(TrainProperties::getTrainName)
+                .collect(Collectors.toList());
+        assertFalse("Nothing matched " + conditions, expectedNames.isEmpty());
+        assertEquals("Matched trains of " + conditions, expectedNames, actualNames);
+    }
+}
@@ -0,0 +1,66 @@
+package com.bergerkiller.bukkit.tc;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.bukkit.util.Vector;
+import org.junit.Test;
+
+import com.bergerkiller.bukkit.common.math.Quaternion;
+import com.bergerkiller.bukkit.tc.controller.components.UnchangedTransformTracker;
+
+/**
+ * Tests that the attachment transforms of parked carts stop being
+ * computed once nothing changes, and start again when something does
+ */
+public class UnchangedTransformTrackerTest {
+
+    @Test
+    public void testSkipsWhenUnchanged() {
+        UnchangedTransformTracker tracker = new UnchangedTransformTracker();
+        Vector position = new Vector(10.5, 64.0625, -20.5);
+
+        // Computed with the same inputs a few times first, then skipped
+        // A new, but equal orientation instance is returned every tick
+        for (int i = 0; i <= UnchangedTransformTracker.TICKS_BEFORE_SKIP; i++) {
+            assertFalse(tracker.canSkip(position.clone(), Quaternion.fromYawPitchRoll(0.0, 90.0, 0.0), 0.0));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(tracker.canSkip(position.clone(), Quaternion.fromYawPitchRoll(0.0, 90.0, 0.0), 0.0));
+        }
+    }
+
+    @Test
+    public void testComputesWhenChanged() {
+        UnchangedTransformTracker tracker = new UnchangedTransformTracker();
+        Vector position = new Vector(10.5, 64.0625, -20.5);
+        Quaternion orientation = Quaternion.fromYawPitchRoll(0.0, 90.0, 0.0);
+        skipUntilSkipping(tracker, position, orientation, 0.0);
+
+        // Moved
+        Vector moved = position.clone().setX(10.6);
+        assertFalse(tracker.canSkip(moved, orientation, 0.0));
+        skipUntilSkipping(tracker, moved, orientation, 0.0);
+
+        // Rotated
+        Quaternion rotated = Quaternion.fromYawPitchRoll(0.0, 91.0, 0.0);
+        assertFalse(tracker.canSkip(moved, rotated, 0.0));
+        skipUntilSkipping(tracker, moved, rotated, 0.0);
+
+        // Rolled
+        assertFalse(tracker.canSkip(moved, rotated, 5.0));
+        skipUntilSkipping(tracker, moved, rotated, 5.0);
+
+        // Reset (train woke up, attachments changed)
+        tracker.reset();
+        assertFalse(tracker.canSkip(moved, rotated, 5.0));
+        skipUntilSkipping(tracker, moved, rotated, 5.0);
+    }
+
+    private static void skipUntilSkipping(UnchangedTransformTracker tracker, Vector position, Quaternion orientation, double roll) {
+        for (int i = 0; i < UnchangedTransformTracker.TICKS_BEFORE_SKIP; i++) {
+            assertFalse(tracker.canSkip(position, orientation, roll));
+        }
+        assertTrue(tracker.canSkip(position, orientation, roll));
+    }
+}